@@ -0,0 +1,62 @@
+#!/bin/sh
+# Сравнение профилей хранения SQLite на синтетической базе.
+# Использование: scripts/bench-storage.sh [дней истории] [повторов] [профили...]
+# Каждый профиль запускается в отдельной JVM на своей копии базы из target/bench.
+# Перед запуском: mvn compile
+set -e
+cd "$(dirname "$0")/.."
+
+DAYS=${1:-1500}
+RUNS=${2:-5}
+[ $# -gt 0 ] && shift
+[ $# -gt 0 ] && shift
+PROFILES=${*:-default balanced large}
+
+mvn -q -B dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+CP="target/classes:$(cat target/classpath.txt)"
+DIR=target/bench
+BASE=$DIR/synthetic-$DAYS.db
+mkdir -p "$DIR"
+
+if [ ! -f "$BASE" ]; then
+    echo "Создание синтетической базы: $DAYS дней истории"
+    awk 'BEGIN {
+        print "id,capacity,zone";
+        for (t = 1; t <= 60; t++) print t "," (2 + t % 4 * 2) "," (t <= 20 ? "Основной зал" : t <= 40 ? "Терраса" : "VIP");
+    }' > "$DIR/tables.csv"
+    awk -v days="$DAYS" 'BEGIN {
+        srand(42);
+        print "client,table_id,date,start_time,duration,guests,status";
+        now = systime();
+        for (d = -days; d <= 30; d++) {
+            date = strftime("%Y-%m-%d", now + d * 86400);
+            for (t = 1; t <= 60; t++) {
+                for (s = 0; s < 5; s++) {
+                    if (rand() < 0.3) continue;
+                    r = rand();
+                    status = d >= 0 ? "Подтверждено" : r < 0.08 ? "Отменено" : r < 0.12 ? "Неявка" : "Завершено";
+                    start = 600 + s * 150;
+                    printf "Клиент %d,%d,%s,%02d:%02d,%d,%d,%s\n", int(rand() * 20000), t, date,
+                        int(start / 60), start % 60, 90 + int(rand() * 3) * 30, 1 + int(rand() * 6), status;
+                }
+            }
+        }
+    }' > "$DIR/reservations.csv"
+
+    rm -f "$BASE" "$BASE-wal" "$BASE-shm"
+    java -Drestaurant.db.path="$BASE" -Drestaurant.db.profile=default -cp "$CP" cli.Commands \
+        import-tables --in "$DIR/tables.csv"
+    java -Drestaurant.db.path="$BASE" -Drestaurant.db.profile=default -cp "$CP" cli.Commands \
+        import-reservations --in "$DIR/reservations.csv" --rejects "$DIR/rejects.csv"
+    java -Drestaurant.db.path="$BASE" -Drestaurant.db.profile=default -cp "$CP" cli.Commands rebuild-summary
+fi
+echo "База: $BASE, $(du -h "$BASE" | cut -f1)"
+
+for profile in $PROFILES; do
+    COPY=$DIR/$profile.db
+    rm -f "$COPY" "$COPY-wal" "$COPY-shm"
+    cp "$BASE" "$COPY"
+    echo
+    java -Drestaurant.db.path="$COPY" -Drestaurant.db.profile="$profile" -cp "$CP" cli.Commands \
+        bench --iterations "$RUNS"
+done
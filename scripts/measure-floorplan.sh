@@ -0,0 +1,27 @@
+#!/bin/sh
+# Частота кадров плана зала на базе с большим числом столиков.
+# Использование: scripts/measure-floorplan.sh [столиков]
+# Запускает интерфейс (нужен дисплей) с -Drestaurant.floorplan.report=true: пока план
+# перерисовывается (перетаскивание, прокрутка, масштаб), раз в секунду печатается
+# число кадров в секунду и время отрисовки кадра.
+# Перед запуском: mvn compile
+set -e
+cd "$(dirname "$0")/.."
+
+TABLES=${1:-300}
+
+mvn -q -B dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+CP="target/classes:$(cat target/classpath.txt)"
+DIR=target/bench
+BASE=$DIR/floorplan-$TABLES.db
+mkdir -p "$DIR"
+
+if [ ! -f "$BASE" ]; then
+    awk -v tables="$TABLES" 'BEGIN {
+        print "id,capacity,zone";
+        for (t = 1; t <= tables; t++) print t "," (2 + t % 4 * 2) "," (t % 3 == 0 ? "Основной зал" : t % 3 == 1 ? "Терраса" : "VIP");
+    }' > "$DIR/floorplan-tables.csv"
+    java -Drestaurant.db.path="$BASE" -cp "$CP" cli.Commands import-tables --in "$DIR/floorplan-tables.csv"
+fi
+
+java -Drestaurant.db.path="$BASE" -Drestaurant.floorplan.report=true -cp "$CP" Launcher
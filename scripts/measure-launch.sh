@@ -0,0 +1,51 @@
+#!/bin/sh
+# Сравнение запуска: обычный classpath с полным JDK против образа target/image.
+# Использование: scripts/measure-launch.sh [повторов] [команда CLI...]
+# Без команды запускается интерфейс с -Drestaurant.startup.exit=true (нужен дисплей).
+# Перед запуском: mvn clean -Pruntime-image package
+set -e
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+[ $# -gt 0 ] && shift
+JVM_OPTS=""
+if [ $# -eq 0 ]; then
+    JVM_OPTS="-Drestaurant.startup.exit=true -Drestaurant.ui.preload=false"
+fi
+
+mvn -q -B dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+FAT_CP="target/classes:$(cat target/classpath.txt)"
+TIME=$(command -v /usr/bin/time || true)
+
+median() {
+    sort -n "$1" | awk '{ v[NR] = $1 } END { print NR % 2 ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+measure() {
+    name=$1; shift
+    : > target/times.txt
+    : > target/rss-runs.txt
+    i=0
+    while [ $i -lt "$RUNS" ]; do
+        start=$(date +%s%N)
+        if [ -n "$TIME" ]; then
+            "$TIME" -f "%M" -o target/rss.txt "$@" >/dev/null 2>&1
+            tail -n 1 target/rss.txt >> target/rss-runs.txt
+        else
+            "$@" >/dev/null 2>&1
+        fi
+        end=$(date +%s%N)
+        echo $(((end - start) / 1000000)) >> target/times.txt
+        i=$((i + 1))
+    done
+    rss=""
+    [ -n "$TIME" ] && rss=", RSS (медиана) $(median target/rss-runs.txt) КБ"
+    echo "$name: медиана $(median target/times.txt) мс за запуск из $RUNS$rss"
+}
+
+measure "classpath" java $JVM_OPTS -cp "$FAT_CP" Launcher "$@"
+measure "образ    " env JAVA_OPTS="$JVM_OPTS" sh target/image/restaurant.sh "$@"
+
+JDK_HOME=$(dirname "$(dirname "$(readlink -f "$(command -v java)")")")
+echo "Размер JDK:    $(du -sh "$JDK_HOME" | cut -f1)"
+echo "Размер образа: $(du -sh target/image | cut -f1)"
@@ -0,0 +1,19 @@
+#!/bin/sh
+# Запуск из образа target/image: урезанная среда runtime/, приложение в app/,
+# нативная библиотека SQLite заранее распакована в native/.
+DIR=$(cd "$(dirname "$0")" && pwd)
+
+case "$(uname -s)" in
+    Darwin) OS=Mac; LIB=libsqlitejdbc.dylib ;;
+    *)      OS=Linux; LIB=libsqlitejdbc.so ;;
+esac
+case "$(uname -m)" in
+    x86_64|amd64)  ARCH=x86_64 ;;
+    aarch64|arm64) ARCH=aarch64 ;;
+    *)             ARCH=$(uname -m) ;;
+esac
+
+exec "$DIR/runtime/bin/java" -Xshare:auto \
+    -Dorg.sqlite.lib.path="$DIR/native/org/sqlite/native/$OS/$ARCH" \
+    -Dorg.sqlite.lib.name=$LIB \
+    $JAVA_OPTS -cp "$DIR/app/*" Launcher "$@"
@@ -0,0 +1,6 @@
+public class Launcher {
+
+    public static void main(String[] args) {
+        Main.main(args);
+    }
+}
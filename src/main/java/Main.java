@@ -1,8 +1,11 @@
+import cli.Commands;
 import controller.MainController;
+import dao.Database;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import service.StartupProfiler;
 
 public class Main extends Application {
     private MainController mainController;
@@ -12,6 +15,7 @@ public class Main extends Application {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main.fxml"));
             Scene scene = new Scene(loader.load());
+            StartupProfiler.mark("main.fxml загружен");
 
             mainController = loader.getController();
 
@@ -29,11 +33,17 @@ public class Main extends Application {
             });
 
             stage.show();
+            StartupProfiler.mark("окно показано");
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && Commands.isCommand(args[0])) {
+            System.exit(Commands.run(args));
+        }
+        StartupProfiler.mark("main()");
+        Database.initAsync().thenRun(() -> StartupProfiler.mark("схема БД проверена"));
         launch(args);
     }}
\ No newline at end of file
@@ -0,0 +1,306 @@
+package cli;
+
+import dao.ArchiveDAO;
+import dao.Database;
+import dao.DatabaseBackup;
+import dao.DatabaseMaintenance;
+import dao.ReservationExporter;
+import dao.ReservationImporter;
+import dao.StorageProfile;
+import dao.SummaryDAO;
+import dao.TurnTimeModel;
+import service.OccupancyAnalytics;
+import service.QueryBenchmark;
+
+import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Commands {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Использование: cli.Commands <команда> [параметры]");
+            System.exit(1);
+        }
+        System.exit(run(args));
+    }
+
+    public static boolean isCommand(String name) {
+        return name.equals("export") || name.equals("import-reservations") || name.equals("import-tables")
+                || name.equals("archive") || name.equals("analytics")
+                || name.equals("rebuild-summary") || name.equals("train-model") || name.equals("bench")
+                || name.equals("maintenance") || name.equals("rebuild-layout")
+                || name.equals("backup") || name.equals("restore");
+    }
+
+    public static int run(String[] args) {
+        Map<String, String> options = parseOptions(args);
+
+        switch (args[0]) {
+            case "export":
+                return export(options);
+            case "import-reservations":
+                return importReservations(options);
+            case "import-tables":
+                return importTables(options);
+            case "archive":
+                return archive(options);
+            case "analytics":
+                return analytics();
+            case "rebuild-summary":
+                return rebuildSummary();
+            case "train-model":
+                return trainModel();
+            case "bench":
+                return bench(options);
+            case "maintenance":
+                return maintenance();
+            case "rebuild-layout":
+                return rebuildLayout();
+            case "backup":
+                return backup(options);
+            case "restore":
+                return restore(options);
+            default:
+                System.err.println("Неизвестная команда: " + args[0]);
+                return 1;
+        }
+    }
+
+    private static int export(Map<String, String> options) {
+        String out = options.get("out");
+        if (out == null) {
+            System.err.println("Использование: export --out <файл> [--format csv|ndjson] [--gzip] " +
+                    "[--from YYYY-MM-DD] [--to YYYY-MM-DD]");
+            return 1;
+        }
+
+        ReservationExporter.Format format = "ndjson".equalsIgnoreCase(options.get("format"))
+                ? ReservationExporter.Format.NDJSON
+                : ReservationExporter.Format.CSV;
+        boolean gzip = options.containsKey("gzip") || out.endsWith(".gz");
+
+        long start = System.currentTimeMillis();
+        long rows = ReservationExporter.export(Paths.get(out), format, gzip,
+                options.get("from"), options.get("to"),
+                count -> System.out.print("\rЭкспортировано: " + count));
+        System.out.println();
+
+        if (rows < 0) {
+            System.err.println("Не удалось выполнить экспорт");
+            return 1;
+        }
+        System.out.println("Готово: " + rows + " строк за " + (System.currentTimeMillis() - start) + " мс");
+        return 0;
+    }
+
+    private static int importReservations(Map<String, String> options) {
+        String in = options.get("in");
+        if (in == null) {
+            System.err.println("Использование: import-reservations --in <файл.csv[.gz]> [--rejects <файл>]");
+            return 1;
+        }
+
+        Path rejects = Paths.get(options.getOrDefault("rejects", in + ".rejected.csv"));
+        Map<String, Object> report = ReservationImporter.importReservations(Paths.get(in), rejects,
+                count -> System.out.print("\rИмпортировано: " + count));
+        System.out.println();
+
+        if (report.containsKey("error")) {
+            System.err.println("Импорт прерван: " + report.get("error"));
+            System.err.println("Сохранено: " + report.get("imported") + ", отменено: " + report.get("rolledBack") +
+                    ", отклонено: " + report.get("rejected") + " (" + rejects + ")");
+            return 1;
+        }
+
+        long imported = (Long) report.get("imported");
+        long millis = Math.max((Long) report.get("millis"), 1);
+        System.out.println("Импортировано: " + imported + ", отклонено: " + report.get("rejected") +
+                " (" + rejects + "), " + (imported * 1000 / millis) + " строк/с");
+        return 0;
+    }
+
+    private static int importTables(Map<String, String> options) {
+        String in = options.get("in");
+        if (in == null) {
+            System.err.println("Использование: import-tables --in <файл.csv> [--rejects <файл>]");
+            return 1;
+        }
+
+        Path rejects = Paths.get(options.getOrDefault("rejects", in + ".rejected.csv"));
+        Map<String, Object> report = ReservationImporter.importTables(Paths.get(in), rejects);
+        if (report.containsKey("error")) {
+            System.err.println("Не удалось импортировать столики: " + report.get("error"));
+            return 1;
+        }
+        System.out.println("Импортировано столиков: " + report.get("imported") +
+                ", отклонено: " + report.get("rejected") + " (" + rejects + ")");
+        return 0;
+    }
+
+    private static int archive(Map<String, String> options) {
+        int horizonDays;
+        try {
+            horizonDays = Integer.parseInt(options.getOrDefault("horizon",
+                    String.valueOf(Integer.getInteger("restaurant.archive.horizonDays", 365))));
+        } catch (NumberFormatException e) {
+            horizonDays = -1;
+        }
+        if (horizonDays < 0) {
+            System.err.println("Использование: archive [--horizon <дней>]");
+            return 1;
+        }
+
+        long moved = ArchiveDAO.archiveOlderThan(horizonDays);
+        System.out.println("Перенесено в архив: " + moved);
+        return 0;
+    }
+
+    private static int analytics() {
+        long start = System.currentTimeMillis();
+        OccupancyAnalytics.refresh();
+        long elapsed = System.currentTimeMillis() - start;
+
+        Map<String, Object> summary = OccupancyAnalytics.getSummary();
+        System.out.println("Период: " + summary.get("from") + " — " + summary.get("to"));
+        System.out.println("Посадок: " + summary.get("seated") + ", отмен: " + summary.get("cancelled") +
+                ", неявок: " + summary.get("noShows"));
+        System.out.println(String.format("Средняя длительность: %.1f мин, доля неявок: %.1f%%",
+                (Double) summary.get("averageTurnMinutes"), (Double) summary.get("noShowRate") * 100));
+        System.out.println(String.format("Загрузка столиков в часы работы: %.1f%%, загрузка мест: %.1f%%",
+                (Double) summary.get("tableHourUtilization") * 100, (Double) summary.get("seatUtilization") * 100));
+        System.out.println("Расчет: " + elapsed + " мс");
+        return 0;
+    }
+
+    private static int rebuildSummary() {
+        long start = System.currentTimeMillis();
+        long days = SummaryDAO.rebuild();
+        if (days < 0) {
+            System.err.println("Не удалось пересчитать сводку");
+            return 1;
+        }
+        System.out.println("Пересчитано дней: " + days + " за " + (System.currentTimeMillis() - start) + " мс");
+        return 0;
+    }
+
+    private static int trainModel() {
+        long start = System.currentTimeMillis();
+        long rows = TurnTimeModel.train();
+        if (rows < 0) {
+            System.err.println("Не удалось обучить модель");
+            return 1;
+        }
+        System.out.println("Учтено исходов: " + rows + " за " + (System.currentTimeMillis() - start) + " мс");
+        return 0;
+    }
+
+    private static int bench(Map<String, String> options) {
+        int iterations = Math.max(Integer.parseInt(options.getOrDefault("iterations", "5")), 1);
+
+        System.out.println("Профиль хранения: " + StorageProfile.describe());
+        Database.initAsync().join();
+        Map<String, long[]> results = QueryBenchmark.run(iterations);
+
+        System.out.println(String.format("%-26s %11s %10s %10s", "Запрос", "первый", "медиана", "макс"));
+        for (Map.Entry<String, long[]> entry : results.entrySet()) {
+            long[] times = entry.getValue();
+            System.out.println(String.format("%-26s %8.1f мс %7.1f мс %7.1f мс", entry.getKey(),
+                    times[0] / 1000.0, times[1] / 1000.0, times[2] / 1000.0));
+        }
+        return 0;
+    }
+
+    private static int maintenance() {
+        Database.initAsync().join();
+        long walBefore = DatabaseMaintenance.getWalBytes();
+        long start = System.currentTimeMillis();
+        DatabaseMaintenance.runOnce(true);
+        long elapsed = System.currentTimeMillis() - start;
+
+        System.out.println("WAL до обслуживания: " + walBefore / 1024 + " КБ");
+        for (Map.Entry<String, Object> entry : DatabaseMaintenance.getMetrics().entrySet()) {
+            System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+        }
+        System.out.println("Обслуживание: " + elapsed + " мс");
+        return 0;
+    }
+
+    private static int rebuildLayout() {
+        System.out.println("Профиль хранения: " + StorageProfile.describe());
+        if (!StorageProfile.rebuildLayout()) {
+            System.err.println("Не удалось перестроить файл базы");
+            return 1;
+        }
+        return 0;
+    }
+
+    private static int backup(Map<String, String> options) {
+        Path directory = options.containsKey("dir") ? Paths.get(options.get("dir")) : DatabaseBackup.DIRECTORY;
+
+        if (options.containsKey("list")) {
+            for (Path file : DatabaseBackup.listBackups(directory)) {
+                System.out.println(file + " (" + file.toFile().length() / 1024 + " КБ)");
+            }
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        Path target = DatabaseBackup.backup(directory, percent -> System.out.print("\rСкопировано: " + percent + "%"));
+        System.out.println();
+
+        if (target == null) {
+            System.err.println("Не удалось создать резервную копию");
+            return 1;
+        }
+        System.out.println("Резервная копия: " + target + " за " + (System.currentTimeMillis() - start) + " мс");
+        return 0;
+    }
+
+    private static int restore(Map<String, String> options) {
+        Path source;
+        if (options.containsKey("from")) {
+            source = Paths.get(options.get("from"));
+        } else if (options.containsKey("latest")) {
+            List<Path> backups = DatabaseBackup.listBackups(DatabaseBackup.DIRECTORY);
+            if (backups.isEmpty()) {
+                System.err.println("Резервных копий нет в " + DatabaseBackup.DIRECTORY);
+                return 1;
+            }
+            source = backups.get(backups.size() - 1);
+        } else {
+            System.err.println("Использование: restore --from <файл.db> | --latest");
+            return 1;
+        }
+
+        long start = System.currentTimeMillis();
+        boolean restored = DatabaseBackup.restore(source, percent -> System.out.print("\rВосстановлено: " + percent + "%"));
+        System.out.println();
+
+        if (!restored) {
+            System.err.println("Не удалось восстановить базу из " + source);
+            return 1;
+        }
+        System.out.println("База восстановлена из " + source + " за " + (System.currentTimeMillis() - start) + " мс");
+        return 0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                continue;
+            }
+            String key = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(key, args[++i]);
+            } else {
+                options.put(key, "true");
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,149 @@
+package controller;
+
+import dao.SummaryDAO;
+import service.OccupancyAnalytics;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public class AnalyticsController implements RefreshablePage {
+    @FXML private ComboBox<String> zoneCombo;
+    @FXML private GridPane heatmapGrid;
+    @FXML private Label statusLabel;
+    @FXML private Label periodLabel;
+    @FXML private Label turnTimeLabel;
+    @FXML private Label noShowLabel;
+    @FXML private Label utilizationLabel;
+    @FXML private Label seatUtilizationLabel;
+    @FXML private Label countsLabel;
+    @FXML private Label recentCoversLabel;
+    @FXML private Label recentBookingsLabel;
+    @FXML private Label recentPeakLabel;
+
+    private static final String[] DAYS = {"Пн", "Вт", "Ср", "Чт", "Пт", "Сб", "Вс"};
+
+    @FXML
+    private void initialize() {
+        zoneCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                showHeatmap(newVal);
+            }
+        });
+    }
+
+    @Override
+    public void refresh() {
+        handleRefresh();
+    }
+
+    @FXML
+    private void handleRefresh() {
+        statusLabel.setText("Расчет...");
+
+        Task<Map<String, Object>> task = new Task<Map<String, Object>>() {
+            @Override
+            protected Map<String, Object> call() {
+                OccupancyAnalytics.refresh();
+                LocalDate today = LocalDate.now();
+                return SummaryDAO.getTotals(today.minusDays(29).toString(), today.toString());
+            }
+        };
+        task.setOnSucceeded(event -> {
+            statusLabel.setText("");
+            showSummary();
+            showRecentTotals(task.getValue());
+
+            String selected = zoneCombo.getValue();
+            List<String> zones = OccupancyAnalytics.getZones();
+            zoneCombo.getItems().setAll(zones);
+            if (selected != null && zones.contains(selected)) {
+                zoneCombo.setValue(selected);
+                showHeatmap(selected);
+            } else if (!zones.isEmpty()) {
+                zoneCombo.setValue(zones.get(0));
+            }
+        });
+        task.setOnFailed(event -> statusLabel.setText("Ошибка расчета"));
+
+        Thread thread = new Thread(task, "occupancy-analytics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void showSummary() {
+        Map<String, Object> summary = OccupancyAnalytics.getSummary();
+
+        if (summary.get("from") == null) {
+            periodLabel.setText("Нет завершенных дней для анализа");
+            return;
+        }
+
+        periodLabel.setText("Период: " + summary.get("from") + " — " + summary.get("to"));
+        turnTimeLabel.setText(String.format("Средняя длительность посадки: %.0f мин",
+                (Double) summary.get("averageTurnMinutes")));
+        noShowLabel.setText(String.format("Доля неявок: %.1f%%", (Double) summary.get("noShowRate") * 100));
+        utilizationLabel.setText(String.format("Загрузка столиков в часы работы: %.1f%%",
+                (Double) summary.get("tableHourUtilization") * 100));
+        seatUtilizationLabel.setText(String.format("Заполненность мест за столиками: %.1f%%",
+                (Double) summary.get("seatUtilization") * 100));
+        countsLabel.setText("Посадок: " + summary.get("seated") + ", отмен: " + summary.get("cancelled") +
+                ", неявок: " + summary.get("noShows"));
+    }
+
+    private void showRecentTotals(Map<String, Object> totals) {
+        if (totals.isEmpty()) {
+            return;
+        }
+        recentCoversLabel.setText("Гостей: " + totals.get("covers") + " за " + totals.get("days") + " дн.");
+        recentBookingsLabel.setText("Броней: " + totals.get("bookings") + ", завершено: " + totals.get("completed") +
+                ", отмен: " + totals.get("cancelled") + ", неявок: " + totals.get("noShows"));
+        recentPeakLabel.setText(String.format("Пик одновременно занятых столиков в зоне: %d, посадочных часов: %.0f",
+                (Integer) totals.get("peakTables"), (Long) totals.get("seatedMinutes") / 60.0));
+    }
+
+    private void showHeatmap(String zone) {
+        double[][] heatmap = OccupancyAnalytics.getHeatmap(zone);
+        heatmapGrid.getChildren().clear();
+
+        int firstSlot = OccupancyAnalytics.OPEN_MINUTE / OccupancyAnalytics.SLOT_MINUTES;
+        int lastSlot = OccupancyAnalytics.CLOSE_MINUTE / OccupancyAnalytics.SLOT_MINUTES;
+
+        for (int slot = firstSlot; slot < lastSlot; slot += 4) {
+            Label hour = new Label(String.format("%02d", slot * OccupancyAnalytics.SLOT_MINUTES / 60));
+            hour.setStyle("-fx-font-size: 10px; -fx-text-fill: #666;");
+            heatmapGrid.add(hour, slot - firstSlot + 1, 0, 4, 1);
+        }
+
+        for (int dow = 0; dow < 7; dow++) {
+            Label day = new Label(DAYS[dow]);
+            day.setMinWidth(30);
+            day.setAlignment(Pos.CENTER_LEFT);
+            heatmapGrid.add(day, 0, dow + 1);
+
+            for (int slot = firstSlot; slot < lastSlot; slot++) {
+                double value = heatmap[dow][slot];
+                Rectangle cell = new Rectangle(18, 24, heatColor(value));
+
+                int minutes = slot * OccupancyAnalytics.SLOT_MINUTES;
+                Tooltip.install(cell, new Tooltip(String.format("%s %02d:%02d — %.0f%%",
+                        DAYS[dow], minutes / 60, minutes % 60, value * 100)));
+                heatmapGrid.add(cell, slot - firstSlot + 1, dow + 1);
+            }
+        }
+    }
+
+    private Color heatColor(double value) {
+        if (value <= 0) {
+            return Color.web("#ecf0f1");
+        }
+        return Color.web("#27ae60").interpolate(Color.web("#e74c3c"), Math.min(1.0, value));
+    }
+}
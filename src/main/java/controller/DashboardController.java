@@ -4,6 +4,17 @@ import dao.ReservationDAO;
 import dao.TableDAO;
 import model.Reservation;
 import model.TableEntity;
+import model.WaitingParty;
+import service.SlotSearch;
+import service.SlotSuggester;
+import service.TableCombinations;
+import service.TableAssignmentOptimizer;
+import service.Waitlist;
+import view.FloorPlanCanvas;
+import view.AvailabilityHints;
+import view.GuestsComboBox;
+import view.ListPatcher;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -18,7 +29,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
-public class DashboardController {
+public class DashboardController implements RefreshablePage {
     @FXML private TableView<Reservation> todayReservationsTable;
     @FXML private TableColumn<Reservation, Integer> resIdCol;
     @FXML private TableColumn<Reservation, String> resClientCol;
@@ -33,6 +44,23 @@ public class DashboardController {
     @FXML private TableColumn<TableEntity, Integer> tableCapacityCol;
     @FXML private TableColumn<TableEntity, String> tableStatusCol;
 
+    @FXML private Label waitlistLabel;
+
+    @FXML private FloorPlanCanvas floorPlan;
+    @FXML private CheckBox arrangeTablesCheck;
+    @FXML private ToggleButton tableListToggle;
+
+    private static volatile FloorPlanCanvas liveFloorPlan;
+
+    static {
+        TableDAO.addTableStatusListener((tableId, status) -> Platform.runLater(() -> {
+            FloorPlanCanvas plan = liveFloorPlan;
+            if (plan != null) {
+                plan.setStatus(tableId, status);
+            }
+        }));
+    }
+
     private static final String[] TIME_SLOTS = {
             "10:00", "10:15", "10:30", "10:45",
             "11:00", "11:15", "11:30", "11:45",
@@ -52,7 +80,8 @@ public class DashboardController {
     @FXML
     private void initialize() {
         setupTables();
-        loadData();
+        setupFloorPlan();
+        Waitlist.setMatchListener((party, tableId) -> Platform.runLater(() -> offerTableToWaitingParty(party, tableId)));
     }
 
     private void setupTables() {
@@ -69,13 +98,60 @@ public class DashboardController {
         tableStatusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
     }
 
+    private void setupFloorPlan() {
+        liveFloorPlan = floorPlan;
+        floorPlan.setOnTablesMoved(positions -> {
+            Thread save = new Thread(() -> TableDAO.updateTablePositions(positions), "floor-plan-save");
+            save.setDaemon(true);
+            save.start();
+        });
+        arrangeTablesCheck.selectedProperty().addListener((obs, oldVal, newVal) -> floorPlan.setEditable(newVal));
+        arrangeTablesCheck.disableProperty().bind(tableListToggle.selectedProperty());
+        availableTablesTable.visibleProperty().bind(tableListToggle.selectedProperty());
+        floorPlan.visibleProperty().bind(tableListToggle.selectedProperty().not());
+    }
+
+    @Override
+    public void refresh() {
+        loadData();
+    }
+
     private void loadData() {
         String today = LocalDate.now().toString();
         List<Reservation> todayReservations = ReservationDAO.getReservationsByDate(today);
-        todayReservationsTable.setItems(FXCollections.observableArrayList(todayReservations));
+        ListPatcher.patch(todayReservationsTable, todayReservations, Reservation::getId, Reservation::copyFrom);
 
         List<TableEntity> allTables = TableDAO.getAllTables();
-        availableTablesTable.setItems(FXCollections.observableArrayList(allTables));
+        ListPatcher.patch(availableTablesTable, allTables, TableEntity::getId, TableEntity::copyFrom);
+        floorPlan.setTables(allTables);
+
+        waitlistLabel.setText("В листе ожидания: " + Waitlist.size());
+    }
+
+    private void offerTableToWaitingParty(WaitingParty party, int tableId) {
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Лист ожидания");
+        confirm.setHeaderText("Освободился столик #" + tableId);
+        confirm.setContentText("Посадить " + party.getClientName() + " (" + party.getGuests() + " гост.)?");
+
+        if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            Waitlist.offerDeclined(party, tableId);
+            loadData();
+            return;
+        }
+
+        int clientId = ReservationDAO.createOrGetClient(party.getClientName());
+        String now = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm"));
+        boolean success = ReservationDAO.addReservationWithStatus(clientId, tableId, LocalDate.now().toString(),
+                now, party.getDuration(), party.getGuests(), "Активно");
+
+        if (success) {
+            Waitlist.offerAccepted(tableId);
+        } else {
+            Waitlist.offerDeclined(party, tableId);
+            showError("Столик уже занят");
+        }
+        loadData();
     }
 
     @FXML
@@ -85,7 +161,8 @@ public class DashboardController {
 
         ButtonType seatButton = new ButtonType("Посадить сейчас", ButtonBar.ButtonData.OK_DONE);
         ButtonType findButton = new ButtonType("Найти ближайшее время", ButtonBar.ButtonData.OTHER);
-        dialog.getDialogPane().getButtonTypes().addAll(seatButton, findButton, ButtonType.CANCEL);
+        ButtonType waitButton = new ButtonType("В лист ожидания", ButtonBar.ButtonData.LEFT);
+        dialog.getDialogPane().getButtonTypes().addAll(seatButton, findButton, waitButton, ButtonType.CANCEL);
 
         GridPane grid = new GridPane();
         grid.setHgap(10);
@@ -134,8 +211,7 @@ public class DashboardController {
         durationCombo.getItems().addAll(15, 30, 45, 60, 75, 90, 105, 120, 135, 150, 165, 180);
         durationCombo.setValue(120);
 
-        ComboBox<Integer> guestsCombo = new ComboBox<>();
-        guestsCombo.getItems().addAll(1, 2, 3, 4, 5, 6, 8, 10, 12);
+        ComboBox<Integer> guestsCombo = new GuestsComboBox();
         guestsCombo.setValue(2);
 
         ComboBox<String> tableCombo = new ComboBox<>();
@@ -221,9 +297,17 @@ public class DashboardController {
         grid.add(tableCombo, 1, 5);
         grid.add(recommendationLabel, 0, 6, 2, 1);
 
+        ComboBox<Integer> patienceCombo = new ComboBox<>();
+        patienceCombo.getItems().addAll(15, 30, 45, 60, 90);
+        patienceCombo.setValue(30);
+        grid.add(new Label("Готовы ждать (мин):"), 0, 7);
+        grid.add(patienceCombo, 1, 7);
+
         dialog.getDialogPane().setContent(grid);
 
         dialog.getDialogPane().lookupButton(seatButton).setDisable(true);
+        dialog.getDialogPane().lookupButton(waitButton).disableProperty().bind(
+                clientField.textProperty().isEmpty());
 
         Runnable checkFields = () -> {
             boolean allFilled = !clientField.getText().trim().isEmpty() &&
@@ -280,6 +364,15 @@ public class DashboardController {
         });
 
         dialog.setResultConverter(button -> {
+            if (button == waitButton) {
+                Map<String, Object> result = new HashMap<>();
+                result.put("waitlist", true);
+                result.put("client", clientField.getText());
+                result.put("duration", durationCombo.getValue());
+                result.put("guests", guestsCombo.getValue());
+                result.put("patience", patienceCombo.getValue());
+                return result;
+            }
             if (button == seatButton) {
                 Map<String, Object> result = new HashMap<>();
                 result.put("client", clientField.getText());
@@ -294,6 +387,12 @@ public class DashboardController {
 
         Optional<Map<String, Object>> result = dialog.showAndWait();
         result.ifPresent(data -> {
+            if (data.containsKey("waitlist")) {
+                Waitlist.add(((String) data.get("client")).trim(), (Integer) data.get("guests"),
+                        (Integer) data.get("duration"), (Integer) data.get("patience"));
+                loadData();
+                return;
+            }
             try {
                 String clientName = (String) data.get("client");
                 String time = (String) data.get("time");
@@ -424,13 +523,6 @@ public class DashboardController {
 
         DatePicker datePicker = new DatePicker();
         datePicker.setValue(LocalDate.now());
-        datePicker.setDayCellFactory(picker -> new DateCell() {
-            @Override
-            public void updateItem(LocalDate date, boolean empty) {
-                super.updateItem(date, empty);
-                setDisable(empty || date.isBefore(LocalDate.now()));
-            }
-        });
 
         ComboBox<String> timeCombo = new ComboBox<>();
         timeCombo.getItems().addAll(TIME_SLOTS);
@@ -444,10 +536,12 @@ public class DashboardController {
         durationCombo.getItems().addAll(15, 30, 45, 60, 75, 90, 105, 120, 135, 150, 165, 180);
         durationCombo.setValue(120);
 
-        ComboBox<Integer> guestsCombo = new ComboBox<>();
-        guestsCombo.getItems().addAll(1, 2, 3, 4, 5, 6, 8, 10, 12);
+        ComboBox<Integer> guestsCombo = new GuestsComboBox();
         guestsCombo.setValue(2);
 
+        AvailabilityHints.installSlotBadges(timeCombo, datePicker, durationCombo, guestsCombo);
+        AvailabilityHints.installAvailabilityCells(datePicker, durationCombo, guestsCombo, TIME_SLOTS);
+
         ComboBox<String> tableCombo = new ComboBox<>();
         tableCombo.setPromptText("Столик");
         tableCombo.setDisable(true);
@@ -465,6 +559,13 @@ public class DashboardController {
                         durationCombo.getValue(),
                         guestsCombo.getValue());
 
+                boolean combined = false;
+                if (tables.isEmpty()) {
+                    tables = TableCombinations.findAvailable(datePicker.getValue().toString(),
+                            timeCombo.getValue(), durationCombo.getValue(), guestsCombo.getValue(), 5);
+                    combined = !tables.isEmpty();
+                }
+
                 tableCombo.getItems().clear();
                 tableCombo.getItems().addAll(tables);
                 tableCombo.setDisable(false);
@@ -475,7 +576,9 @@ public class DashboardController {
                     recommendationLabel.setStyle("-fx-text-fill: #e74c3c;");
                 } else {
                     tableCombo.setValue(tables.get(0));
-                    recommendationLabel.setText("Доступно столиков: " + tables.size());
+                    recommendationLabel.setText(combined
+                            ? "Нет одного свободного столика, можно объединить соседние"
+                            : "Доступно столиков: " + tables.size());
                     recommendationLabel.setStyle("-fx-text-fill: #27ae60;");
                 }
             }
@@ -506,7 +609,7 @@ public class DashboardController {
                 }
                 recommendationLabel.setStyle("-fx-text-fill: #3498db; -fx-font-weight: bold;");
             } else {
-                recommendationLabel.setText("Нет доступных слотов на ближайшие 30 дней");
+                recommendationLabel.setText("Нет доступных слотов на ближайшие " + SlotSearch.HORIZON_DAYS + " дн.");
                 recommendationLabel.setStyle("-fx-text-fill: #e74c3c;");
             }
         };
@@ -522,6 +625,49 @@ public class DashboardController {
             }
         });
 
+        ComboBox<String> suggestionsCombo = new ComboBox<>();
+        suggestionsCombo.setPromptText("Нажмите «Найти лучшее время»");
+        suggestionsCombo.setPrefWidth(300);
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+
+        Runnable showSuggestions = () -> {
+            int guests = guestsCombo.getValue() != null ? guestsCombo.getValue() : 2;
+            int duration = durationCombo.getValue() != null ? durationCombo.getValue() : 120;
+            LocalDate requestedDate = datePicker.getValue() != null ? datePicker.getValue() : LocalDate.now();
+
+            suggestions.clear();
+            suggestions.addAll(SlotSuggester.suggest(requestedDate, timeCombo.getValue(), LocalTime.now(),
+                    TIME_SLOTS, guests, duration, getTableIdFromDisplayString(tableCombo.getValue()),
+                    SlotSuggester.DEFAULT_LIMIT));
+
+            suggestionsCombo.getItems().clear();
+            for (Map<String, Object> suggestion : suggestions) {
+                suggestionsCombo.getItems().add((String) suggestion.get("label"));
+            }
+
+            if (suggestions.isEmpty()) {
+                recommendationLabel.setText("Нет подходящих вариантов рядом с выбранным временем");
+                recommendationLabel.setStyle("-fx-text-fill: #e74c3c;");
+            } else {
+                suggestionsCombo.getSelectionModel().select(0);
+            }
+        };
+
+        suggestionsCombo.getSelectionModel().selectedIndexProperty().addListener((obs, oldVal, newVal) -> {
+            int index = newVal.intValue();
+            if (index < 0 || index >= suggestions.size()) {
+                return;
+            }
+            Map<String, Object> suggestion = suggestions.get(index);
+            datePicker.setValue((LocalDate) suggestion.get("date"));
+            timeCombo.setValue((String) suggestion.get("time"));
+            tableCombo.setValue((String) suggestion.get("tableInfo"));
+
+            recommendationLabel.setText("Вариант " + (index + 1) + " из " + suggestions.size() +
+                    ", зона: " + suggestion.get("zone"));
+            recommendationLabel.setStyle("-fx-text-fill: #3498db; -fx-font-weight: bold;");
+        });
+
         grid.add(new Label("Клиент:"), 0, 0);
         grid.add(clientField, 1, 0);
         grid.add(new Label("Дата:"), 0, 1);
@@ -534,7 +680,9 @@ public class DashboardController {
         grid.add(guestsCombo, 1, 4);
         grid.add(new Label("Столик:"), 0, 5);
         grid.add(tableCombo, 1, 5);
-        grid.add(recommendationLabel, 0, 6, 2, 1);
+        grid.add(new Label("Варианты:"), 0, 6);
+        grid.add(suggestionsCombo, 1, 6);
+        grid.add(recommendationLabel, 0, 7, 2, 1);
 
         dialog.getDialogPane().setContent(grid);
 
@@ -561,7 +709,7 @@ public class DashboardController {
         Button findBtn = (Button) dialog.getDialogPane().lookupButton(findButton);
         findBtn.addEventFilter(ActionEvent.ACTION, event -> {
             event.consume();
-            findBestTimeAndDate.run();
+            showSuggestions.run();
         });
 
         dialog.setResultConverter(button -> {
@@ -588,6 +736,17 @@ public class DashboardController {
                 int guests = (Integer) data.get("guests");
                 String tableInfo = (String) data.get("table");
 
+                if (TableCombinations.isCombination(tableInfo)) {
+                    int clientId = ReservationDAO.createOrGetClient(clientName);
+                    if (ReservationDAO.addCombinedReservation(clientId, TableCombinations.parseTableIds(tableInfo),
+                            date, time, duration, guests, "Подтверждено")) {
+                        loadData();
+                    } else {
+                        showError("Один из столиков уже занят в это время!");
+                    }
+                    return;
+                }
+
                 int tableId = getTableIdFromDisplayString(tableInfo);
                 if (tableId <= 0) {
                     showError("Ошибка: не удалось определить столик");
@@ -654,49 +813,10 @@ public class DashboardController {
         return null;
     }
 
-
     private Map<String, Object> findBestAvailableSlot(LocalDate startDate, int guests, int duration) {
-        int maxDaysAhead = 30;
-
-        List<LocalTime> timeSlots = new ArrayList<>();
-        for (String slot : TIME_SLOTS) {
-            timeSlots.add(LocalTime.parse(slot));
-        }
-
-        for (int dayOffset = 0; dayOffset < maxDaysAhead; dayOffset++) {
-            LocalDate checkDate = startDate.plusDays(dayOffset);
-            String dateStr = checkDate.toString();
-
-            int startTimeIndex = 0;
-            if (checkDate.equals(LocalDate.now())) {
-                LocalTime nowTime = LocalTime.now();
-                for (int i = 0; i < timeSlots.size(); i++) {
-                    if (!timeSlots.get(i).isBefore(nowTime)) {
-                        startTimeIndex = i;
-                        break;
-                    }
-                }
-            }
-
-            for (int i = startTimeIndex; i < timeSlots.size(); i++) {
-                String checkTime = timeSlots.get(i).format(DateTimeFormatter.ofPattern("HH:mm"));
-
-                List<String> tables = ReservationDAO.getAvailableTables(dateStr, checkTime, duration, guests);
-
-                if (!tables.isEmpty()) {
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("date", checkDate);
-                    result.put("time", checkTime);
-                    result.put("tablesCount", tables.size());
-                    return result;
-                }
-            }
-        }
-
-        return null;
+        return SlotSearch.findEarliest(startDate, LocalTime.now(), TIME_SLOTS, guests, duration);
     }
 
-
     private String getNearestFutureTime(LocalTime currentTime) {
         for (String timeSlot : TIME_SLOTS) {
             LocalTime slotTime = LocalTime.parse(timeSlot);
@@ -785,18 +905,91 @@ public class DashboardController {
     @FXML
     private void handleFreeTable() {
         TableEntity selected = availableTablesTable.getSelectionModel().getSelectedItem();
-        if (selected == null) {
+        int tableId = tableListToggle.isSelected()
+                ? (selected != null ? selected.getId() : -1)
+                : floorPlan.getSelectedTableId();
+        if (tableId < 0) {
             showError("Выберите столик");
             return;
         }
 
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Освободить столик");
-        confirm.setHeaderText("Освободить столик #" + selected.getId());
+        confirm.setHeaderText("Освободить столик #" + tableId);
         confirm.setContentText("Отметить столик как свободный?");
 
         if (confirm.showAndWait().get() == ButtonType.OK) {
-            TableDAO.updateTableStatus(selected.getId(), "Свободен");
+            TableDAO.updateTableStatus(tableId, "Свободен");
+            loadData();
+        }
+    }
+
+    @FXML
+    private void handleShowWaitlist() {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Лист ожидания");
+        ButtonType removeButton = new ButtonType("Убрать из очереди", ButtonBar.ButtonData.LEFT);
+        dialog.getDialogPane().getButtonTypes().addAll(removeButton, ButtonType.CLOSE);
+
+        ListView<WaitingParty> list = new ListView<>(FXCollections.observableArrayList(Waitlist.getWaiting()));
+        list.setPrefSize(400, 300);
+        list.setPlaceholder(new Label("Очередь пуста"));
+        dialog.getDialogPane().setContent(list);
+
+        Button remove = (Button) dialog.getDialogPane().lookupButton(removeButton);
+        remove.disableProperty().bind(list.getSelectionModel().selectedItemProperty().isNull());
+        remove.addEventFilter(ActionEvent.ACTION, event -> {
+            event.consume();
+            WaitingParty selected = list.getSelectionModel().getSelectedItem();
+            if (selected != null && Waitlist.remove(selected.getId())) {
+                list.getItems().remove(selected);
+            }
+        });
+
+        dialog.showAndWait();
+        loadData();
+    }
+
+    @FXML
+    private void handleOptimizeSeating() {
+        String today = LocalDate.now().toString();
+        Map<String, Object> plan = TableAssignmentOptimizer.optimize(today);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> moves = (List<Map<String, Object>>) plan.get("moves");
+        if (moves.isEmpty()) {
+            Alert info = new Alert(Alert.AlertType.INFORMATION);
+            info.setTitle("Оптимизация рассадки");
+            info.setHeaderText(null);
+            info.setContentText("Текущая рассадка уже оптимальна");
+            info.showAndWait();
+            return;
+        }
+
+        StringBuilder details = new StringBuilder();
+        Map<Integer, Integer> tableByReservation = new HashMap<>();
+        Map<Integer, Integer> plannedFromTables = new HashMap<>();
+        for (Map<String, Object> move : moves) {
+            details.append(String.format("Бронь #%d (%s, %d гост.): столик %d → %s%n",
+                    (Integer) move.get("reservationId"), move.get("time"), (Integer) move.get("guests"),
+                    (Integer) move.get("fromTableId"), move.get("toTable")));
+            tableByReservation.put((Integer) move.get("reservationId"), (Integer) move.get("toTableId"));
+            plannedFromTables.put((Integer) move.get("reservationId"), (Integer) move.get("fromTableId"));
+        }
+
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Оптимизация рассадки");
+        confirm.setHeaderText("Пересадок: " + moves.size() + ", дополнительно мест за вечер: " +
+                plan.get("coversGained"));
+        TextArea area = new TextArea(details.toString());
+        area.setEditable(false);
+        area.setPrefRowCount(Math.min(12, moves.size()));
+        confirm.getDialogPane().setContent(area);
+
+        if (confirm.showAndWait().get() == ButtonType.OK) {
+            if (!ReservationDAO.reassignTables(today, tableByReservation, plannedFromTables)) {
+                showError("Брони изменились во время расчета. Повторите оптимизацию.");
+            }
             loadData();
         }
     }
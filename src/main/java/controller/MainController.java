@@ -1,27 +1,75 @@
 package controller;
 
+import dao.ArchiveDAO;
+import dao.Database;
+import dao.DatabaseBackup;
+import dao.DatabaseMaintenance;
+import dao.SummaryDAO;
 import dao.TableDAO;
+import dao.TurnTimeModel;
 import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
+import javafx.scene.input.InputEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.util.Duration;
+import service.StartupProfiler;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class MainController {
     @FXML private BorderPane rootPane;
     @FXML private Label globalStatsLabel;
 
+    private static final String[] PAGES = {
+            "/fxml/dashboard.fxml",
+            "/fxml/reservations.fxml",
+            "/fxml/timeline.fxml",
+            "/fxml/tables.fxml",
+            "/fxml/zones.fxml",
+            "/fxml/analytics.fxml"
+    };
+
+    private static final boolean PRELOAD_PAGES =
+            Boolean.parseBoolean(System.getProperty("restaurant.ui.preload", "true"));
+
+    private final Map<String, Page> pages = new HashMap<>();
     private Timeline statsUpdateTimeline;
 
     @FXML
     private void initialize() {
-        startStatsUpdater();
+        Platform.runLater(this::openFirstPage);
+    }
+
+    private void openFirstPage() {
         openDashboard();
+        StartupProfiler.mark("дашборд загружен");
+        startStatsUpdater();
+        StartupProfiler.finishOnNextPulse(rootPane.getScene());
+
+        ArchiveDAO.startBackgroundArchiving();
+
+        Thread summaryBackfill = new Thread(SummaryDAO::rebuildIfEmpty, "summary-backfill");
+        summaryBackfill.setDaemon(true);
+        summaryBackfill.start();
+
+        TurnTimeModel.startNightlyTraining();
+
+        rootPane.getScene().addEventFilter(InputEvent.ANY, event -> DatabaseMaintenance.markActivity());
+        DatabaseMaintenance.startBackgroundMaintenance();
+        DatabaseBackup.startScheduledBackups();
+
+        if (PRELOAD_PAGES) {
+            PauseTransition delay = new PauseTransition(Duration.seconds(1));
+            delay.setOnFinished(event -> preloadPages(0));
+            delay.play();
+        }
     }
 
     private void startStatsUpdater() {
@@ -44,6 +92,11 @@ public class MainController {
         loadPage("/fxml/reservations.fxml");
     }
 
+    @FXML
+    private void openTimeline() {
+        loadPage("/fxml/timeline.fxml");
+    }
+
     @FXML
     private void openTables() {
         loadPage("/fxml/tables.fxml");
@@ -54,15 +107,48 @@ public class MainController {
         loadPage("/fxml/zones.fxml");
     }
 
+    @FXML
+    private void openAnalytics() {
+        loadPage("/fxml/analytics.fxml");
+    }
+
     private void loadPage(String path) {
+        Page page = pages.get(path);
+        if (page == null) {
+            page = createPage(path);
+            if (page == null) {
+                return;
+            }
+        }
+        if (page.controller instanceof RefreshablePage) {
+            ((RefreshablePage) page.controller).refresh();
+        }
+        rootPane.setCenter(page.node);
+    }
+
+    private Page createPage(String path) {
         try {
-            Node page = FXMLLoader.load(getClass().getResource(path));
-            rootPane.setCenter(page);
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(path));
+            Node node = loader.load();
+            Page page = new Page(node, loader.getController());
+            pages.put(path, page);
+            return page;
         } catch (Exception e) {
             e.printStackTrace();
+            return null;
         }
     }
 
+    private void preloadPages(int index) {
+        if (index >= PAGES.length) {
+            return;
+        }
+        if (!pages.containsKey(PAGES[index])) {
+            createPage(PAGES[index]);
+        }
+        Platform.runLater(() -> preloadPages(index + 1));
+    }
+
     private void updateGlobalStats() {
         Map<String, Object> stats = TableDAO.getTableStatistics();
 
@@ -102,5 +188,19 @@ public class MainController {
         if (statsUpdateTimeline != null) {
             statsUpdateTimeline.stop();
         }
+        ArchiveDAO.stopBackgroundArchiving();
+        DatabaseMaintenance.stopBackgroundMaintenance();
+        DatabaseBackup.stopScheduledBackups();
+        Database.optimize();
+    }
+
+    private static class Page {
+        final Node node;
+        final Object controller;
+
+        Page(Node node, Object controller) {
+            this.node = node;
+            this.controller = controller;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package controller;
+
+public interface RefreshablePage {
+
+    void refresh();
+}
@@ -2,15 +2,25 @@ package controller;
 
 import dao.Database;
 import dao.ReservationDAO;
+import dao.ReservationExporter;
+import dao.ReservationImporter;
 import model.Reservation;
-import javafx.collections.FXCollections;
+import service.SlotSearch;
+import service.SlotSuggester;
+import service.TableCombinations;
+import view.AvailabilityHints;
+import view.GuestsComboBox;
+import view.ListPatcher;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.geometry.Insets;
 import javafx.event.ActionEvent;
+import javafx.stage.FileChooser;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -19,7 +29,7 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
-public class ReservationController {
+public class ReservationController implements RefreshablePage {
     @FXML private TableView<Reservation> reservationTable;
     @FXML private TableColumn<Reservation, Integer> idCol;
     @FXML private TableColumn<Reservation, String> clientCol;
@@ -30,6 +40,7 @@ public class ReservationController {
     @FXML private TableColumn<Reservation, String> statusCol;
     @FXML private TableColumn<Reservation, String> tableCol;
     @FXML private DatePicker dateFilter;
+    @FXML private Label exportStatusLabel;
 
     private static final String[] TIME_SLOTS = {
             "10:00", "10:15", "10:30", "10:45",
@@ -57,17 +68,18 @@ public class ReservationController {
         guestsCol.setCellValueFactory(new PropertyValueFactory<>("guests"));
         statusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
         tableCol.setCellValueFactory(new PropertyValueFactory<>("tableInfo"));
+    }
+
+    @Override
+    public void refresh() {
         loadData();
     }
 
     private void loadData() {
-        if (dateFilter.getValue() != null) {
-            reservationTable.setItems(FXCollections.observableArrayList(
-                    ReservationDAO.getReservationsByDate(dateFilter.getValue().toString())));
-        } else {
-            reservationTable.setItems(FXCollections.observableArrayList(
-                    ReservationDAO.getAllReservations()));
-        }
+        List<Reservation> reservations = dateFilter.getValue() != null
+                ? ReservationDAO.getReservationsByDate(dateFilter.getValue().toString())
+                : ReservationDAO.getAllReservations();
+        ListPatcher.patch(reservationTable, reservations, Reservation::getId, Reservation::copyFrom);
     }
 
     @FXML
@@ -100,13 +112,6 @@ public class ReservationController {
 
         DatePicker datePicker = new DatePicker();
         datePicker.setValue(LocalDate.now());
-        datePicker.setDayCellFactory(picker -> new DateCell() {
-            @Override
-            public void updateItem(LocalDate date, boolean empty) {
-                super.updateItem(date, empty);
-                setDisable(empty || date.isBefore(LocalDate.now()));
-            }
-        });
 
         ComboBox<String> timeCombo = new ComboBox<>();
         timeCombo.getItems().addAll(TIME_SLOTS);
@@ -117,10 +122,12 @@ public class ReservationController {
         durationCombo.setValue(120);
         durationCombo.setPromptText("Длительность (мин)");
 
-        ComboBox<Integer> guestsCombo = new ComboBox<>();
-        guestsCombo.getItems().addAll(1, 2, 3, 4, 5, 6, 8, 10, 12);
+        ComboBox<Integer> guestsCombo = new GuestsComboBox();
         guestsCombo.setPromptText("Гости");
 
+        AvailabilityHints.installSlotBadges(timeCombo, datePicker, durationCombo, guestsCombo);
+        AvailabilityHints.installAvailabilityCells(datePicker, durationCombo, guestsCombo, TIME_SLOTS);
+
         ComboBox<String> tableCombo = new ComboBox<>();
         tableCombo.setPromptText("Столик");
         tableCombo.setDisable(true);
@@ -153,7 +160,7 @@ public class ReservationController {
                 }
                 recommendationLabel.setStyle("-fx-text-fill: #3498db; -fx-font-weight: bold;");
             } else {
-                recommendationLabel.setText("Нет доступных слотов на ближайшие 30 дней");
+                recommendationLabel.setText("Нет доступных слотов на ближайшие " + SlotSearch.HORIZON_DAYS + " дн.");
                 recommendationLabel.setStyle("-fx-text-fill: #e74c3c;");
             }
         };
@@ -171,6 +178,49 @@ public class ReservationController {
             }
         });
 
+        ComboBox<String> suggestionsCombo = new ComboBox<>();
+        suggestionsCombo.setPromptText("Нажмите «Найти лучшее время»");
+        suggestionsCombo.setPrefWidth(300);
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+
+        Runnable showSuggestions = () -> {
+            int guests = guestsCombo.getValue() != null ? guestsCombo.getValue() : 2;
+            int duration = durationCombo.getValue() != null ? durationCombo.getValue() : 120;
+            LocalDate requestedDate = datePicker.getValue() != null ? datePicker.getValue() : LocalDate.now();
+
+            suggestions.clear();
+            suggestions.addAll(SlotSuggester.suggest(requestedDate, timeCombo.getValue(), LocalTime.now().plusMinutes(15),
+                    TIME_SLOTS, guests, duration, extractTableIdFromDisplayString(tableCombo.getValue()),
+                    SlotSuggester.DEFAULT_LIMIT));
+
+            suggestionsCombo.getItems().clear();
+            for (Map<String, Object> suggestion : suggestions) {
+                suggestionsCombo.getItems().add((String) suggestion.get("label"));
+            }
+
+            if (suggestions.isEmpty()) {
+                recommendationLabel.setText("Нет подходящих вариантов рядом с выбранным временем");
+                recommendationLabel.setStyle("-fx-text-fill: #e74c3c;");
+            } else {
+                suggestionsCombo.getSelectionModel().select(0);
+            }
+        };
+
+        suggestionsCombo.getSelectionModel().selectedIndexProperty().addListener((obs, oldVal, newVal) -> {
+            int index = newVal.intValue();
+            if (index < 0 || index >= suggestions.size()) {
+                return;
+            }
+            Map<String, Object> suggestion = suggestions.get(index);
+            datePicker.setValue((LocalDate) suggestion.get("date"));
+            timeCombo.setValue((String) suggestion.get("time"));
+            tableCombo.setValue((String) suggestion.get("tableInfo"));
+
+            recommendationLabel.setText("Вариант " + (index + 1) + " из " + suggestions.size() +
+                    ", зона: " + suggestion.get("zone"));
+            recommendationLabel.setStyle("-fx-text-fill: #3498db; -fx-font-weight: bold;");
+        });
+
         grid.add(new Label("Клиент:"), 0, 0);
         grid.add(clientField, 1, 0);
         grid.add(new Label("Дата:"), 0, 1);
@@ -183,7 +233,9 @@ public class ReservationController {
         grid.add(guestsCombo, 1, 4);
         grid.add(new Label("Столик:"), 0, 5);
         grid.add(tableCombo, 1, 5);
-        grid.add(recommendationLabel, 0, 6, 2, 1);
+        grid.add(new Label("Варианты:"), 0, 6);
+        grid.add(suggestionsCombo, 1, 6);
+        grid.add(recommendationLabel, 0, 7, 2, 1);
 
         dialog.getDialogPane().setContent(grid);
 
@@ -210,7 +262,7 @@ public class ReservationController {
         Button findBtn = (Button) dialog.getDialogPane().lookupButton(findButton);
         findBtn.addEventFilter(ActionEvent.ACTION, event -> {
             event.consume();
-            findBestTimeAndDate.run();
+            showSuggestions.run();
         });
 
         dialog.setResultConverter(button -> {
@@ -237,6 +289,17 @@ public class ReservationController {
                 int guests = (Integer) data.get("guests");
                 String tableInfo = (String) data.get("table");
 
+                if (TableCombinations.isCombination(tableInfo)) {
+                    int clientId = ReservationDAO.createOrGetClient(clientName);
+                    if (ReservationDAO.addCombinedReservation(clientId, TableCombinations.parseTableIds(tableInfo),
+                            date, time, duration, guests, "Подтверждено")) {
+                        loadData();
+                    } else {
+                        showError("Один из столиков уже занят в это время!");
+                    }
+                    return;
+                }
+
                 int tableId = extractTableIdFromDisplayString(tableInfo);
                 if (tableId <= 0) {
                     showError("Не удалось определить столик. Выберите другой столик.");
@@ -271,6 +334,13 @@ public class ReservationController {
                     durationCombo.getValue(),
                     guestsCombo.getValue());
 
+            boolean combined = false;
+            if (tables.isEmpty()) {
+                tables = TableCombinations.findAvailable(datePicker.getValue().toString(),
+                        timeCombo.getValue(), durationCombo.getValue(), guestsCombo.getValue(), 5);
+                combined = !tables.isEmpty();
+            }
+
             tableCombo.getItems().clear();
             tableCombo.getItems().addAll(tables);
             tableCombo.setDisable(false);
@@ -281,7 +351,9 @@ public class ReservationController {
                 recommendationLabel.setStyle("-fx-text-fill: #e74c3c;");
             } else {
                 tableCombo.setValue(tables.get(0));
-                recommendationLabel.setText("Доступно столиков: " + tables.size());
+                recommendationLabel.setText(combined
+                        ? "Нет одного свободного столика, можно объединить соседние"
+                        : "Доступно столиков: " + tables.size());
                 recommendationLabel.setStyle("-fx-text-fill: #27ae60;");
             }
         } else {
@@ -291,44 +363,7 @@ public class ReservationController {
     }
 
     private Map<String, Object> findBestAvailableSlot(LocalDate startDate, int guests, int duration) {
-        int maxDaysAhead = 30;
-
-        List<LocalTime> timeSlots = new ArrayList<>();
-        for (String slot : TIME_SLOTS) {
-            timeSlots.add(LocalTime.parse(slot));
-        }
-
-        for (int dayOffset = 0; dayOffset < maxDaysAhead; dayOffset++) {
-            LocalDate checkDate = startDate.plusDays(dayOffset);
-            String dateStr = checkDate.toString();
-
-            int startTimeIndex = 0;
-            if (checkDate.equals(LocalDate.now())) {
-                LocalTime nowTime = LocalTime.now().plusMinutes(15);
-                for (int i = 0; i < timeSlots.size(); i++) {
-                    if (!timeSlots.get(i).isBefore(nowTime)) {
-                        startTimeIndex = i;
-                        break;
-                    }
-                }
-            }
-
-            for (int i = startTimeIndex; i < timeSlots.size(); i++) {
-                String checkTime = timeSlots.get(i).format(DateTimeFormatter.ofPattern("HH:mm"));
-
-                List<String> tables = ReservationDAO.getAvailableTables(dateStr, checkTime, duration, guests);
-
-                if (!tables.isEmpty()) {
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("date", checkDate);
-                    result.put("time", checkTime);
-                    result.put("tablesCount", tables.size());
-                    return result;
-                }
-            }
-        }
-
-        return null;
+        return SlotSearch.findEarliest(startDate, LocalTime.now().plusMinutes(15), TIME_SLOTS, guests, duration);
     }
 
     private int extractTableIdFromDisplayString(String displayString) {
@@ -473,8 +508,7 @@ public class ReservationController {
         durationCombo.setValue(reservation.getDuration());
         durationCombo.setPromptText("Длительность (мин)");
 
-        ComboBox<Integer> guestsCombo = new ComboBox<>();
-        guestsCombo.getItems().addAll(1, 2, 3, 4, 5, 6, 8, 10, 12);
+        ComboBox<Integer> guestsCombo = new GuestsComboBox();
         guestsCombo.setValue(reservation.getGuests());
         guestsCombo.setPromptText("Гости");
 
@@ -521,7 +555,7 @@ public class ReservationController {
                 }
                 recommendationLabel.setStyle("-fx-text-fill: #3498db; -fx-font-weight: bold;");
             } else {
-                recommendationLabel.setText("Нет доступных слотов на ближайшие 30 дней");
+                recommendationLabel.setText("Нет доступных слотов на ближайшие " + SlotSearch.HORIZON_DAYS + " дн.");
                 recommendationLabel.setStyle("-fx-text-fill: #e74c3c;");
             }
         };
@@ -648,61 +682,13 @@ public class ReservationController {
         });
     }
     private Map<String, Object> findBestAvailableSlotForEdit(LocalDate startDate, int guests, int duration, int excludeReservationId, int currentTableId) {
-        int maxDaysAhead = 30;
-
-        List<LocalTime> timeSlots = new ArrayList<>();
-        for (String slot : TIME_SLOTS) {
-            timeSlots.add(LocalTime.parse(slot));
-        }
-
-        for (int dayOffset = 0; dayOffset < maxDaysAhead; dayOffset++) {
-            LocalDate checkDate = startDate.plusDays(dayOffset);
-            String dateStr = checkDate.toString();
-
-            int startTimeIndex = 0;
-            if (checkDate.equals(LocalDate.now())) {
-                LocalTime nowTime = LocalTime.now().plusMinutes(15);
-                for (int i = 0; i < timeSlots.size(); i++) {
-                    if (!timeSlots.get(i).isBefore(nowTime)) {
-                        startTimeIndex = i;
-                        break;
-                    }
-                }
-            }
-
-            for (int i = startTimeIndex; i < timeSlots.size(); i++) {
-                String checkTime = timeSlots.get(i).format(DateTimeFormatter.ofPattern("HH:mm"));
-
-                if (ReservationDAO.isTableAvailableForEdit(currentTableId, dateStr, checkTime, duration, excludeReservationId)) {
-                    String tableInfo = getTableInfoForId(currentTableId);
-                    if (tableInfo != null) {
-                        Map<String, Object> result = new HashMap<>();
-                        result.put("date", checkDate);
-                        result.put("time", checkTime);
-                        result.put("tableInfo", tableInfo);
-                        return result;
-                    }
-                }
-
-                List<String> tables = ReservationDAO.getAvailableTablesForEdit(
-                        dateStr, checkTime, duration, guests, excludeReservationId);
-
-                if (!tables.isEmpty()) {
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("date", checkDate);
-                    result.put("time", checkTime);
-                    result.put("tableInfo", tables.get(0));
-                    return result;
-                }
-            }
-        }
-
-        return null;
+        return SlotSearch.findEarliest(startDate, LocalTime.now().plusMinutes(15), TIME_SLOTS, guests, duration,
+                excludeReservationId, currentTableId);
     }
     private int getTableIdFromReservation(int reservationId) {
         String sql = "SELECT table_id FROM reservations WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, reservationId);
@@ -724,7 +710,7 @@ public class ReservationController {
 
         String sql = "SELECT zone, capacity FROM tables WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, tableId);
@@ -741,6 +727,157 @@ public class ReservationController {
         return String.format("%d - Неизвестный столик", tableId);
     }
 
+    @FXML
+    private void handleExport() {
+        Dialog<Map<String, Object>> dialog = new Dialog<>();
+        dialog.setTitle("Экспорт бронирований");
+
+        ButtonType exportButton = new ButtonType("Экспортировать", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(exportButton, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 150, 10, 10));
+
+        ComboBox<String> formatCombo = new ComboBox<>();
+        formatCombo.getItems().addAll("CSV", "NDJSON");
+        formatCombo.setValue("CSV");
+
+        CheckBox gzipCheck = new CheckBox("Сжать (gzip)");
+
+        DatePicker fromPicker = new DatePicker();
+        fromPicker.setPromptText("С начала");
+        fromPicker.setValue(dateFilter.getValue());
+
+        DatePicker toPicker = new DatePicker();
+        toPicker.setPromptText("По сегодня");
+        toPicker.setValue(dateFilter.getValue());
+
+        grid.add(new Label("Формат:"), 0, 0);
+        grid.add(formatCombo, 1, 0);
+        grid.add(new Label("С:"), 0, 1);
+        grid.add(fromPicker, 1, 1);
+        grid.add(new Label("По:"), 0, 2);
+        grid.add(toPicker, 1, 2);
+        grid.add(gzipCheck, 1, 3);
+
+        dialog.getDialogPane().setContent(grid);
+
+        dialog.setResultConverter(button -> {
+            if (button == exportButton) {
+                Map<String, Object> result = new HashMap<>();
+                result.put("format", formatCombo.getValue());
+                result.put("gzip", gzipCheck.isSelected());
+                result.put("from", fromPicker.getValue());
+                result.put("to", toPicker.getValue());
+                return result;
+            }
+            return null;
+        });
+
+        Optional<Map<String, Object>> result = dialog.showAndWait();
+        result.ifPresent(data -> {
+            ReservationExporter.Format format = "NDJSON".equals(data.get("format"))
+                    ? ReservationExporter.Format.NDJSON
+                    : ReservationExporter.Format.CSV;
+            boolean gzip = (Boolean) data.get("gzip");
+            String from = data.get("from") != null ? data.get("from").toString() : null;
+            String to = data.get("to") != null ? data.get("to").toString() : null;
+
+            String extension = (format == ReservationExporter.Format.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Сохранить экспорт");
+            chooser.setInitialFileName("reservations" + extension);
+            File file = chooser.showSaveDialog(reservationTable.getScene().getWindow());
+            if (file == null) {
+                return;
+            }
+
+            Task<Long> task = new Task<Long>() {
+                @Override
+                protected Long call() {
+                    return ReservationExporter.export(file.toPath(), format, gzip, from, to,
+                            rows -> updateMessage("Экспортировано: " + rows));
+                }
+            };
+
+            exportStatusLabel.textProperty().bind(task.messageProperty());
+            task.setOnSucceeded(event -> {
+                exportStatusLabel.textProperty().unbind();
+                long rows = task.getValue();
+                if (rows < 0) {
+                    exportStatusLabel.setText("");
+                    showError("Не удалось выполнить экспорт");
+                } else {
+                    exportStatusLabel.setText("Экспорт завершен: " + rows + " строк");
+                }
+            });
+            task.setOnFailed(event -> {
+                exportStatusLabel.textProperty().unbind();
+                exportStatusLabel.setText("");
+                showError("Ошибка экспорта: " + task.getException().getMessage());
+            });
+
+            Thread thread = new Thread(task, "reservation-export");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    @FXML
+    private void handleImport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Импорт бронирований");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv", "*.csv.gz"));
+        File file = chooser.showOpenDialog(reservationTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        File rejects = new File(file.getParentFile(), file.getName() + ".rejected.csv");
+
+        Task<Map<String, Object>> task = new Task<Map<String, Object>>() {
+            @Override
+            protected Map<String, Object> call() {
+                return ReservationImporter.importReservations(file.toPath(), rejects.toPath(),
+                        rows -> updateMessage("Импортировано: " + rows));
+            }
+        };
+
+        exportStatusLabel.textProperty().bind(task.messageProperty());
+        task.setOnSucceeded(event -> {
+            exportStatusLabel.textProperty().unbind();
+            exportStatusLabel.setText("");
+            Map<String, Object> report = task.getValue();
+
+            if (report.containsKey("error")) {
+                showError("Импорт прерван: " + report.get("error") + "\n" +
+                        "Сохранено: " + report.get("imported") + ", отменено: " + report.get("rolledBack") +
+                        ", отклонено: " + report.get("rejected"));
+                loadData();
+                return;
+            }
+
+            Alert info = new Alert(Alert.AlertType.INFORMATION);
+            info.setTitle("Импорт завершен");
+            info.setHeaderText("Импортировано: " + report.get("imported") +
+                    ", отклонено: " + report.get("rejected"));
+            info.setContentText("Отклоненные строки: " + rejects.getAbsolutePath());
+            info.showAndWait();
+            loadData();
+        });
+        task.setOnFailed(event -> {
+            exportStatusLabel.textProperty().unbind();
+            exportStatusLabel.setText("");
+            showError("Ошибка импорта: " + task.getException().getMessage());
+        });
+
+        Thread thread = new Thread(task, "reservation-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private void showError(String msg) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Ошибка");
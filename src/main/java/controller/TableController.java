@@ -1,16 +1,24 @@
 package controller;
 
+import dao.ReservationImporter;
 import dao.TableDAO;
 import model.TableEntity;
-import javafx.collections.FXCollections;
+import service.CapacityForecast;
+import service.MonthAvailability;
+import service.TableCombinations;
+import view.ListPatcher;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
 import javafx.geometry.Insets;
+import javafx.stage.FileChooser;
+
+import java.io.File;
 import java.util.*;
 
-public class TableController {
+public class TableController implements RefreshablePage {
 
     @FXML private TableView<TableEntity> tableTable;
     @FXML private TableColumn<TableEntity, Integer> idCol;
@@ -27,8 +35,6 @@ public class TableController {
 
         tableTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
-        loadData();
-
         tableTable.setRowFactory(tv -> {
             TableRow<TableEntity> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
@@ -40,8 +46,16 @@ public class TableController {
         });
     }
 
+    @Override
+    public void refresh() {
+        loadData();
+    }
+
     private void loadData() {
-        tableTable.setItems(FXCollections.observableArrayList(TableDAO.getAllTables()));
+        ListPatcher.patch(tableTable, TableDAO.getAllTables(), TableEntity::getId, TableEntity::copyFrom);
+        TableCombinations.invalidate();
+        CapacityForecast.invalidate();
+        MonthAvailability.invalidate();
     }
 
     @FXML
@@ -81,6 +95,80 @@ public class TableController {
         }
     }
 
+    @FXML
+    private void handleEditAdjacency() {
+        TableEntity selected = tableTable.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            showError("Выберите столик");
+            return;
+        }
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Соседние столики");
+        dialog.setHeaderText("Столики, которые можно объединить со столиком #" + selected.getId());
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        List<Integer> adjacent = TableDAO.getAdjacentTableIds(selected.getId());
+        Map<CheckBox, Integer> checkBoxes = new LinkedHashMap<>();
+        VBox list = new VBox(6);
+        list.setPadding(new Insets(10));
+        for (TableEntity table : TableDAO.getAllTables()) {
+            if (table.getId() == selected.getId() || !Objects.equals(table.getZone(), selected.getZone())) {
+                continue;
+            }
+            CheckBox box = new CheckBox("Столик #" + table.getId() + " (" + table.getCapacity() + " мест)");
+            box.setSelected(adjacent.contains(table.getId()));
+            checkBoxes.put(box, table.getId());
+            list.getChildren().add(box);
+        }
+        if (checkBoxes.isEmpty()) {
+            list.getChildren().add(new Label("В зоне нет других столиков"));
+        }
+
+        ScrollPane scroll = new ScrollPane(list);
+        scroll.setPrefSize(300, 300);
+        dialog.getDialogPane().setContent(scroll);
+
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
+            List<Integer> ids = new ArrayList<>();
+            for (Map.Entry<CheckBox, Integer> entry : checkBoxes.entrySet()) {
+                if (entry.getKey().isSelected()) {
+                    ids.add(entry.getValue());
+                }
+            }
+            if (!TableDAO.setAdjacentTables(selected.getId(), ids)) {
+                showError("Не удалось сохранить соседние столики");
+            }
+            TableCombinations.invalidate();
+        }
+    }
+
+    @FXML
+    private void handleImportTables() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Импорт столиков");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File file = chooser.showOpenDialog(tableTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        File rejects = new File(file.getParentFile(), file.getName() + ".rejected.csv");
+        Map<String, Object> report = ReservationImporter.importTables(file.toPath(), rejects.toPath());
+        if (report.containsKey("error")) {
+            showError("Не удалось импортировать столики: " + report.get("error"));
+            return;
+        }
+
+        Alert info = new Alert(Alert.AlertType.INFORMATION);
+        info.setTitle("Импорт завершен");
+        info.setHeaderText("Импортировано столиков: " + report.get("imported") +
+                ", отклонено: " + report.get("rejected"));
+        info.setContentText("Отклоненные строки: " + rejects.getAbsolutePath());
+        info.showAndWait();
+        loadData();
+    }
+
     private void showTableDialog(TableEntity table, String title, String buttonText) {
         Dialog<Map<String, Object>> dialog = new Dialog<>();
         dialog.setTitle(title);
@@ -0,0 +1,78 @@
+package controller;
+
+import dao.ReservationDAO;
+import dao.TableDAO;
+import model.Reservation;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import view.TimelineCanvas;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class TimelineController implements RefreshablePage {
+
+    @FXML private DatePicker datePicker;
+    @FXML private Label summaryLabel;
+    @FXML private TimelineCanvas timeline;
+
+    @FXML
+    private void initialize() {
+        datePicker.setValue(LocalDate.now());
+        datePicker.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                loadData();
+            }
+        });
+        timeline.setOnReschedule(this::reschedule);
+    }
+
+    @FXML
+    private void handleRefresh() {
+        loadData();
+    }
+
+    @FXML
+    private void handlePreviousDay() {
+        datePicker.setValue(datePicker.getValue().minusDays(1));
+    }
+
+    @FXML
+    private void handleNextDay() {
+        datePicker.setValue(datePicker.getValue().plusDays(1));
+    }
+
+    @Override
+    public void refresh() {
+        loadData();
+    }
+
+    private void loadData() {
+        String date = datePicker.getValue().toString();
+        List<Reservation> reservations = ReservationDAO.getReservationsByDate(date);
+        timeline.setData(TableDAO.getAllTables(), reservations, ReservationDAO.getComboIdsByDate(date));
+
+        long active = reservations.stream()
+                .filter(r -> "Подтверждено".equals(r.getStatus()) || "Активно".equals(r.getStatus()))
+                .count();
+        summaryLabel.setText("Броней: " + reservations.size() + ", действующих: " + active);
+    }
+
+    private boolean reschedule(Reservation reservation, int tableId, int startMinute) {
+        String startTime = String.format("%02d:%02d", startMinute / 60, startMinute % 60);
+        boolean success = ReservationDAO.updateReservation(reservation.getId(), tableId, reservation.getDate(),
+                startTime, reservation.getDuration(), reservation.getGuests(), reservation.getStatus());
+        if (!success) {
+            showError("Не удалось перенести бронь: столик занят в это время");
+        }
+        loadData();
+        return success;
+    }
+
+    private void showError(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Ошибка");
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
@@ -6,7 +6,7 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import java.util.List;
 
-public class ZonesController {
+public class ZonesController implements RefreshablePage {
 
     @FXML private TableView<String> zonesTable;
     @FXML private TableColumn<String, String> zoneNameCol;
@@ -20,7 +20,10 @@ public class ZonesController {
         });
 
         zonesTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+    }
 
+    @Override
+    public void refresh() {
         loadZones();
     }
 
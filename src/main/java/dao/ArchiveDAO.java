@@ -0,0 +1,128 @@
+package dao;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ArchiveDAO {
+
+    private static final int HORIZON_DAYS = Integer.getInteger("restaurant.archive.horizonDays", 365);
+    private static final int BATCH_SIZE = Integer.getInteger("restaurant.archive.batchSize", 500);
+    private static final long PAUSE_BETWEEN_BATCHES_MS = 50;
+
+    private static final String COLUMNS = "id, client_id, table_id, date, start_time, end_time, duration, guests, status, " +
+            "combo_id, seated_at, completed_at";
+
+    private static ScheduledExecutorService scheduler;
+
+    public static synchronized void startBackgroundArchiving() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-archiver");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> archiveOlderThan(HORIZON_DAYS), 1, 60, TimeUnit.MINUTES);
+    }
+
+    public static synchronized void stopBackgroundArchiving() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public static long archiveOlderThan(int horizonDays) {
+        String cutoff = LocalDate.now().minusDays(horizonDays).toString();
+        long total = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            int moved = archiveBatch(cutoff, BATCH_SIZE);
+            if (moved <= 0) {
+                break;
+            }
+            total += moved;
+
+            try {
+                Thread.sleep(PAUSE_BETWEEN_BATCHES_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return total;
+    }
+
+    public static int archiveBatch(String cutoffDate, int batchSize) {
+        String selectSql = "SELECT id FROM reservations " +
+                "WHERE date < ? AND status IN ('Завершено', 'Отменено', 'Неявка') " +
+                "ORDER BY date LIMIT ?";
+
+        try {
+            return WriteQueue.execute(conn -> {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
+                    ps.setString(1, cutoffDate);
+                    ps.setInt(2, batchSize);
+                    ResultSet rs = ps.executeQuery();
+                    while (rs.next()) {
+                        ids.add(rs.getInt("id"));
+                    }
+                }
+
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+
+                StringBuilder idList = new StringBuilder();
+                for (int id : ids) {
+                    if (idList.length() > 0) {
+                        idList.append(',');
+                    }
+                    idList.append(id);
+                }
+
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("INSERT OR REPLACE INTO reservations_archive (" + COLUMNS + ") " +
+                            "SELECT " + COLUMNS + " FROM reservations WHERE id IN (" + idList + ")");
+                    return stmt.executeUpdate("DELETE FROM reservations WHERE id IN (" + idList + ")");
+                }
+            });
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    static void restoreToLive(Connection conn, int reservationId) throws SQLException {
+        int comboId;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT combo_id FROM reservations_archive WHERE id = ?")) {
+            ps.setInt(1, reservationId);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                return;
+            }
+            comboId = rs.getObject("combo_id") != null ? rs.getInt("combo_id") : -1;
+            rs.close();
+        }
+
+        String where = " WHERE id = ? OR combo_id = ?";
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO reservations (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM reservations_archive" + where);
+             PreparedStatement delete = conn.prepareStatement("DELETE FROM reservations_archive" + where)) {
+            insert.setInt(1, reservationId);
+            insert.setInt(2, comboId);
+            insert.executeUpdate();
+            delete.setInt(1, reservationId);
+            delete.setInt(2, comboId);
+            delete.executeUpdate();
+        }
+    }
+}
@@ -1,18 +1,252 @@
 package dao;
 
 import java.sql.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class Database {
 
-    private static final String URL = "jdbc:sqlite:restaurant.db";
+    private static final String PATH = System.getProperty("restaurant.db.path", "restaurant.db");
+    private static final String URL = "jdbc:sqlite:" + PATH;
+
+    private static final int READERS = Integer.getInteger("restaurant.db.readers", 4);
+    private static final long READ_WAIT_MS = Long.getLong("restaurant.db.readWaitMs", 30000);
+    private static final int MAX_QUEUED_WRITERS = Integer.getInteger("restaurant.db.maxQueuedWriters", 16);
+    private static final long WRITE_WAIT_MS = Long.getLong("restaurant.db.writeWaitMs", 5000);
+
+    private static final AtomicBoolean initStarted = new AtomicBoolean();
+    private static final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    private static final ReentrantLock writeLock = new ReentrantLock(true);
+    private static Connection writer;
+    private static volatile long lastWriteNanos = System.nanoTime();
+
+    private static final Semaphore readerPermits = new Semaphore(READERS, true);
+    private static final BlockingQueue<Connection> idleReaders = new LinkedBlockingQueue<>();
+    private static final ThreadLocal<ReaderHold> readerHold = new ThreadLocal<>();
 
-    static {
-        init();
-    }
     public static Connection getConnection() {
+        awaitInit();
+        try {
+            if (!writeLock.isHeldByCurrentThread() && writeLock.getQueueLength() >= MAX_QUEUED_WRITERS) {
+                throw new SQLException("Очередь записи переполнена: " + writeLock.getQueueLength() + " ожидающих");
+            }
+            if (!writeLock.tryLock(WRITE_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Запись не дождалась очереди за " + WRITE_WAIT_MS + " мс");
+            }
+            try {
+                if (writer == null || writer.isClosed()) {
+                    writer = openConnection();
+                }
+                if (writer == null) {
+                    throw new SQLException("Не удалось открыть соединение для записи");
+                }
+                return PooledConnection.wrap(writer, Database::releaseWriter);
+            } catch (Exception e) {
+                writeLock.unlock();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            e.printStackTrace();
+            return null;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static Connection getReadConnection() {
+        awaitInit();
+        if (writeLock.isHeldByCurrentThread()) {
+            return getConnection();
+        }
+        ReaderHold hold = readerHold.get();
+        if (hold != null) {
+            hold.depth++;
+            return PooledConnection.wrap(hold.connection, Database::releaseReader);
+        }
+
+        try {
+            if (!readerPermits.tryAcquire(READ_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Нет свободного соединения для чтения за " + READ_WAIT_MS + " мс");
+            }
+            try {
+                Connection conn = idleReaders.poll();
+                if (conn == null) {
+                    conn = openReadConnection();
+                }
+                conn.setAutoCommit(false);
+                readerHold.set(new ReaderHold(conn));
+                return PooledConnection.wrap(conn, Database::releaseReader);
+            } catch (Exception e) {
+                readerPermits.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            e.printStackTrace();
+            return null;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    static boolean isWriterHeldByCurrentThread() {
+        return writeLock.isHeldByCurrentThread();
+    }
+
+    static boolean tryLockWriter(long timeoutMs) throws InterruptedException {
+        awaitInit();
+        return writeLock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    static void unlockWriter() {
+        writeLock.unlock();
+    }
+
+    static boolean isWriterBusy() {
+        return writeLock.isLocked() || writeLock.hasQueuedThreads();
+    }
+
+    static long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    public static String getPath() {
+        return PATH;
+    }
+
+    static Connection openMaintenanceConnection() throws SQLException {
+        awaitInit();
+        Connection conn = openConnection();
+        if (conn == null) {
+            throw new SQLException("Не удалось открыть соединение для обслуживания");
+        }
+        return conn;
+    }
+
+    private static void releaseWriter(Connection conn) {
+        try {
+            if (writeLock.getHoldCount() == 1 && !conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            closeQuietly(conn);
+            writer = null;
+        } finally {
+            lastWriteNanos = System.nanoTime();
+            writeLock.unlock();
+        }
+    }
+
+    private static void releaseReader(Connection conn) {
+        ReaderHold hold = readerHold.get();
+        if (--hold.depth > 0) {
+            return;
+        }
+        readerHold.remove();
+        try {
+            conn.setAutoCommit(true);
+            idleReaders.offer(conn);
+        } catch (Exception e) {
+            e.printStackTrace();
+            closeQuietly(conn);
+        } finally {
+            readerPermits.release();
+        }
+    }
+
+    private static Connection openReadConnection() throws SQLException {
+        Connection conn = openConnection();
+        if (conn == null) {
+            throw new SQLException("Не удалось открыть соединение для чтения");
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only = 1");
+        }
+        return conn;
+    }
+
+    public static void optimize() {
+        if (!ready.isDone()) {
+            return;
+        }
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA optimize");
+
+            if (!readerPermits.tryAcquire(READERS, 1, TimeUnit.SECONDS)) {
+                return;
+            }
+            try {
+                for (Connection reader : idleReaders) {
+                    try (Statement readerStmt = reader.createStatement()) {
+                        readerStmt.execute("PRAGMA query_only = 0");
+                        readerStmt.execute("PRAGMA optimize");
+                        readerStmt.execute("PRAGMA query_only = 1");
+                    }
+                }
+            } finally {
+                readerPermits.release(READERS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    public static CompletableFuture<Void> initAsync() {
+        if (initStarted.compareAndSet(false, true)) {
+            Thread thread = new Thread(Database::runInit, "db-init");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return ready;
+    }
+
+    private static void awaitInit() {
+        if (ready.isDone()) {
+            return;
+        }
+        if (initStarted.compareAndSet(false, true)) {
+            runInit();
+        } else {
+            ready.join();
+        }
+    }
+
+    private static void runInit() {
+        try {
+            init();
+        } finally {
+            ready.complete(null);
+        }
+    }
+
+    private static Connection openConnection() {
         try {
             String url = URL + "?journal_mode=WAL&synchronous=NORMAL&locking_mode=NORMAL";
-            return DriverManager.getConnection(url);
+            Connection conn = DriverManager.getConnection(url);
+            StorageProfile.apply(conn);
+            return conn;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -21,9 +255,10 @@ public class Database {
 
 
     private static void init() {
-        try (Connection conn = getConnection();
+        try (Connection conn = openConnection();
              Statement stmt = conn.createStatement()) {
 
+            StorageProfile.applyLayout(conn);
             createTimeFunction(conn);
 
             stmt.execute("CREATE TABLE IF NOT EXISTS zones (" +
@@ -61,12 +296,114 @@ public class Database {
                 e.printStackTrace();
             }
 
+            addColumnIfMissing(conn, "reservations", "combo_id", "INTEGER");
+            addColumnIfMissing(conn, "reservations", "seated_at", "TEXT");
+            addColumnIfMissing(conn, "reservations", "completed_at", "TEXT");
+            addColumnIfMissing(conn, "tables", "pos_x", "REAL");
+            addColumnIfMissing(conn, "tables", "pos_y", "REAL");
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reservations_date " +
+                    "ON reservations(date, start_time)");
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reservations_table " +
+                    "ON reservations(table_id, date)");
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reservations_combo " +
+                    "ON reservations(combo_id) WHERE combo_id IS NOT NULL");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS table_adjacency (" +
+                    "table_a INTEGER NOT NULL, " +
+                    "table_b INTEGER NOT NULL, " +
+                    "PRIMARY KEY (table_a, table_b))");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS reservations_archive (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "client_id INTEGER, " +
+                    "table_id INTEGER, " +
+                    "date TEXT NOT NULL, " +
+                    "start_time TEXT NOT NULL, " +
+                    "end_time TEXT NOT NULL, " +
+                    "duration INTEGER NOT NULL, " +
+                    "guests INTEGER NOT NULL, " +
+                    "status TEXT)");
+
+            addColumnIfMissing(conn, "reservations_archive", "combo_id", "INTEGER");
+            addColumnIfMissing(conn, "reservations_archive", "seated_at", "TEXT");
+            addColumnIfMissing(conn, "reservations_archive", "completed_at", "TEXT");
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reservations_archive_date " +
+                    "ON reservations_archive(date, start_time)");
+
+            stmt.execute("DROP VIEW IF EXISTS reservations_history");
+            stmt.execute("CREATE VIEW reservations_history AS " +
+                    "SELECT id, client_id, table_id, date, start_time, end_time, duration, guests, status, " +
+                    "combo_id, seated_at, completed_at " +
+                    "FROM reservations " +
+                    "UNION ALL " +
+                    "SELECT id, client_id, table_id, date, start_time, end_time, duration, guests, status, " +
+                    "combo_id, seated_at, completed_at " +
+                    "FROM reservations_archive");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS daily_summary (" +
+                    "date TEXT NOT NULL, " +
+                    "zone TEXT NOT NULL, " +
+                    "covers INTEGER NOT NULL DEFAULT 0, " +
+                    "bookings INTEGER NOT NULL DEFAULT 0, " +
+                    "confirmed INTEGER NOT NULL DEFAULT 0, " +
+                    "active INTEGER NOT NULL DEFAULT 0, " +
+                    "completed INTEGER NOT NULL DEFAULT 0, " +
+                    "cancelled INTEGER NOT NULL DEFAULT 0, " +
+                    "no_shows INTEGER NOT NULL DEFAULT 0, " +
+                    "seated_minutes INTEGER NOT NULL DEFAULT 0, " +
+                    "peak_tables INTEGER NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (date, zone))");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS turn_model_stats (" +
+                    "zone TEXT NOT NULL, " +
+                    "guests_bucket INTEGER NOT NULL, " +
+                    "day_of_week INTEGER NOT NULL, " +
+                    "hour_bucket INTEGER NOT NULL, " +
+                    "outcomes INTEGER NOT NULL DEFAULT 0, " +
+                    "no_shows INTEGER NOT NULL DEFAULT 0, " +
+                    "turns INTEGER NOT NULL DEFAULT 0, " +
+                    "ratio_mean REAL NOT NULL DEFAULT 0, " +
+                    "ratio_m2 REAL NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (zone, guests_bucket, day_of_week, hour_bucket))");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS turn_model_state (" +
+                    "id INTEGER PRIMARY KEY CHECK (id = 1), " +
+                    "trained_through TEXT NOT NULL)");
+
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
 
+    private static void addColumnIfMissing(Connection conn, String table, String column, String type) {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("name"))) {
+                        return;
+                    }
+                }
+            }
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class ReaderHold {
+        final Connection connection;
+        int depth = 1;
+
+        ReaderHold(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
     private static void createTimeFunction(Connection conn) {
         try {
             conn.createStatement().execute(
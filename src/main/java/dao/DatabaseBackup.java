@@ -0,0 +1,237 @@
+package dao;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+public class DatabaseBackup {
+
+    public static final Path DIRECTORY = Paths.get(System.getProperty("restaurant.backup.dir", "backups"));
+
+    private static final int KEEP = Integer.getInteger("restaurant.backup.keep", 7);
+    private static final int KEEP_PRE_RESTORE = Integer.getInteger("restaurant.backup.keepPreRestore", 3);
+    private static final int BACKUP_HOUR = Integer.getInteger("restaurant.backup.hour", 3);
+    private static final int PAGES_PER_STEP = Integer.getInteger("restaurant.backup.pagesPerStep", 256);
+    private static final int PAUSE_MS = Integer.getInteger("restaurant.backup.pauseMs", 2);
+    private static final int BUSY_RETRY_MS = 100;
+    private static final int BUSY_RETRIES = 50;
+
+    private static final String PRE_RESTORE_SUFFIX = "-pre-restore";
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final AtomicBoolean running = new AtomicBoolean();
+    private static ScheduledExecutorService scheduler;
+
+    public static synchronized void startScheduledBackups() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-backup");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextRun = now.toLocalDate().atTime(BACKUP_HOUR, 0);
+        if (!nextRun.isAfter(now)) {
+            nextRun = nextRun.plusDays(1);
+        }
+
+        scheduler.scheduleAtFixedRate(() -> backup(DIRECTORY, null), Duration.between(now, nextRun).toMinutes(),
+                TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    public static synchronized void stopScheduledBackups() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public static boolean isRunning() {
+        return running.get();
+    }
+
+    public static Path backup(Path directory, IntConsumer progress) {
+        return copy(directory, progress, "");
+    }
+
+    private static Path copy(Path directory, IntConsumer progress, String suffix) {
+        if (!running.compareAndSet(false, true)) {
+            System.err.println("Резервное копирование уже выполняется");
+            return null;
+        }
+
+        Path target = directory.resolve(baseName() + "-" + LocalDateTime.now().format(STAMP) + suffix + ".db");
+        Path partial = directory.resolve(target.getFileName() + ".part");
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.openMaintenanceConnection()) {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(partial);
+
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master")) {
+                rs.next();
+            }
+
+            ((SQLiteConnection) conn).getDatabase().backup("main", partial.toString(), (remaining, pageCount) -> {
+                if (progress != null && pageCount > 0) {
+                    progress.accept((int) ((pageCount - remaining) * 100L / pageCount));
+                }
+                if (remaining > 0 && PAUSE_MS > 0) {
+                    try {
+                        Thread.sleep(PAUSE_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }, BUSY_RETRY_MS, BUSY_RETRIES, PAGES_PER_STEP);
+            conn.rollback();
+
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            if (suffix.isEmpty()) {
+                rotate(listBackups(directory), KEEP);
+            } else {
+                rotate(listFiles(directory, true), KEEP_PRE_RESTORE);
+            }
+            return target;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+            }
+            return null;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public static List<Path> listBackups(Path directory) {
+        return listFiles(directory, false);
+    }
+
+    private static List<Path> listFiles(Path directory, boolean preRestore) {
+        List<Path> backups = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return backups;
+        }
+
+        String prefix = baseName() + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(".db")
+                        && name.endsWith(PRE_RESTORE_SUFFIX + ".db") == preRestore;
+            }).forEach(backups::add);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        Collections.sort(backups);
+        return backups;
+    }
+
+    public static boolean restore(Path source, IntConsumer progress) {
+        if (!Files.isRegularFile(source)) {
+            System.err.println("Файл резервной копии не найден: " + source);
+            return false;
+        }
+        if (!isIntact(source)) {
+            System.err.println("Резервная копия повреждена: " + source);
+            return false;
+        }
+        if (isInUse()) {
+            System.err.println("База открыта другим процессом (закройте приложение перед восстановлением)");
+            return false;
+        }
+        if (copy(DIRECTORY, null, PRE_RESTORE_SUFFIX) == null) {
+            System.err.println("Не удалось сохранить текущую базу перед восстановлением");
+            return false;
+        }
+
+        try (Connection conn = Database.openMaintenanceConnection()) {
+            ((SQLiteConnection) conn).getDatabase().restore("main", source.toString(), (remaining, pageCount) -> {
+                if (progress != null && pageCount > 0) {
+                    progress.accept((int) ((pageCount - remaining) * 100L / pageCount));
+                }
+            }, BUSY_RETRY_MS, BUSY_RETRIES, -1);
+            return true;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static boolean isInUse() {
+        try (Connection conn = Database.openMaintenanceConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 0");
+            try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = DELETE")) {
+                if (!rs.next() || !"delete".equalsIgnoreCase(rs.getString(1))) {
+                    return true;
+                }
+            }
+            stmt.execute("PRAGMA journal_mode = WAL");
+            return false;
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static boolean isIntact(Path file) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+
+        try (Connection conn = config.createConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+            return rs.next() && "ok".equals(rs.getString(1));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static void rotate(List<Path> backups, int keep) {
+        for (int i = 0; i < backups.size() - keep; i++) {
+            try {
+                Files.delete(backups.get(i));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static String baseName() {
+        String name = Paths.get(Database.getPath()).getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
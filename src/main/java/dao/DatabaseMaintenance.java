@@ -0,0 +1,216 @@
+package dao;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class DatabaseMaintenance {
+
+    private static final int INTERVAL_SEC = Integer.getInteger("restaurant.db.maintenance.intervalSec", 30);
+    private static final int IDLE_SEC = Integer.getInteger("restaurant.db.maintenance.idleSec", 120);
+    private static final int CHECKPOINT_WAIT_MS = Integer.getInteger("restaurant.db.maintenance.checkpointWaitMs", 2000);
+    private static final int TRUNCATE_LOCK_MS = Integer.getInteger("restaurant.db.maintenance.truncateLockMs", 50);
+    private static final long TRUNCATE_WAL_BYTES =
+            Long.getLong("restaurant.db.maintenance.truncateWalMb", 4) * 1024L * 1024L;
+    private static final int VACUUM_MIN_FREE_PAGES = Integer.getInteger("restaurant.db.maintenance.vacuumMinPages", 256);
+    private static final int VACUUM_MAX_PAGES = Integer.getInteger("restaurant.db.maintenance.vacuumMaxPages", 2048);
+    private static final int ANALYZE_HOURS = Integer.getInteger("restaurant.db.maintenance.analyzeHours", 24);
+    private static final int ANALYSIS_LIMIT = Integer.getInteger("restaurant.db.maintenance.analysisLimit", 1000);
+
+    private static volatile long lastActivityNanos = System.nanoTime();
+
+    private static ScheduledExecutorService scheduler;
+    private static Connection checkpointConnection;
+
+    private static final Map<String, Object> metrics = new LinkedHashMap<>();
+    private static long lastAnalyzeNanos;
+    private static boolean analyzed;
+
+    public static synchronized void startBackgroundMaintenance() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> runOnce(false), INTERVAL_SEC, INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopBackgroundMaintenance() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public static void markActivity() {
+        lastActivityNanos = System.nanoTime();
+    }
+
+    public static boolean isIdle() {
+        long idleSince = Math.max(lastActivityNanos, Database.getLastWriteNanos());
+        return System.nanoTime() - idleSince >= TimeUnit.SECONDS.toNanos(IDLE_SEC)
+                && !Database.isWriterBusy()
+                && WriteQueue.getQueueLength() == 0
+                && !DatabaseBackup.isRunning();
+    }
+
+    public static synchronized void runOnce(boolean force) {
+        boolean idle = force || isIdle();
+        metrics.put("idle", idle);
+
+        checkpoint("PASSIVE");
+        if (!idle) {
+            return;
+        }
+
+        boolean analyzeDue = !analyzed
+                || System.nanoTime() - lastAnalyzeNanos >= TimeUnit.HOURS.toNanos(ANALYZE_HOURS);
+        incrementalVacuum();
+        if (force || analyzeDue) {
+            analyze();
+        }
+
+        if (force || getWalBytes() >= TRUNCATE_WAL_BYTES) {
+            truncate();
+        }
+    }
+
+    public static synchronized Map<String, Object> getMetrics() {
+        Map<String, Object> snapshot = new LinkedHashMap<>(metrics);
+        snapshot.put("walBytes", getWalBytes());
+        return snapshot;
+    }
+
+    public static long getWalBytes() {
+        return new File(Database.getPath() + "-wal").length();
+    }
+
+    private static void truncate() {
+        try {
+            if (!Database.tryLockWriter(TRUNCATE_LOCK_MS)) {
+                metrics.merge("truncateSkipped", 1L, (a, b) -> (Long) a + (Long) b);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            checkpoint("TRUNCATE", 0);
+        } finally {
+            Database.unlockWriter();
+        }
+    }
+
+    private static void checkpoint(String mode) {
+        checkpoint(mode, CHECKPOINT_WAIT_MS);
+    }
+
+    private static void checkpoint(String mode, int busyTimeoutMs) {
+        long start = System.nanoTime();
+        try {
+            Connection conn = getCheckpointConnection();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMs);
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+                if (rs.next()) {
+                    String prefix = mode.equals("PASSIVE") ? "passive" : "truncate";
+                    metrics.put(prefix + "Busy", rs.getInt(1) != 0);
+                    metrics.put(prefix + "WalFrames", rs.getInt(2));
+                    metrics.put(prefix + "CheckpointedFrames", rs.getInt(3));
+                    metrics.put(prefix + "Millis", (System.nanoTime() - start) / 1_000_000.0);
+                    metrics.merge(prefix + "Count", 1L, (a, b) -> (Long) a + (Long) b);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            closeCheckpointConnection();
+        }
+    }
+
+    private static void incrementalVacuum() {
+        long start = System.nanoTime();
+        try {
+            long freed = WriteQueue.execute(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    int autoVacuum;
+                    try (ResultSet rs = stmt.executeQuery("PRAGMA auto_vacuum")) {
+                        autoVacuum = rs.next() ? rs.getInt(1) : 0;
+                    }
+                    if (autoVacuum != 2) {
+                        return 0L;
+                    }
+
+                    long before = freelistCount(stmt);
+                    if (before < VACUUM_MIN_FREE_PAGES) {
+                        return 0L;
+                    }
+                    try (PreparedStatement ps = conn.prepareStatement("PRAGMA incremental_vacuum(1)")) {
+                        for (long i = Math.min(before, VACUUM_MAX_PAGES); i > 0; i--) {
+                            ps.execute();
+                        }
+                    }
+                    return before - freelistCount(stmt);
+                }
+            });
+            metrics.put("vacuumPages", freed);
+            metrics.put("vacuumMillis", (System.nanoTime() - start) / 1_000_000.0);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void analyze() {
+        long start = System.nanoTime();
+        try {
+            WriteQueue.execute(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+                    stmt.execute("ANALYZE");
+                }
+                return null;
+            });
+            analyzed = true;
+            lastAnalyzeNanos = System.nanoTime();
+            metrics.put("analyzeMillis", (lastAnalyzeNanos - start) / 1_000_000.0);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static long freelistCount(Statement stmt) throws Exception {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static Connection getCheckpointConnection() throws Exception {
+        if (checkpointConnection == null || checkpointConnection.isClosed()) {
+            checkpointConnection = Database.openMaintenanceConnection();
+        }
+        return checkpointConnection;
+    }
+
+    private static void closeCheckpointConnection() {
+        try {
+            if (checkpointConnection != null) {
+                checkpointConnection.close();
+            }
+        } catch (Exception ignored) {
+        }
+        checkpointConnection = null;
+    }
+}
@@ -0,0 +1,79 @@
+package dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+class PooledConnection implements InvocationHandler {
+
+    private final Connection physical;
+    private final Consumer<Connection> release;
+    private final List<Statement> statements = new ArrayList<>();
+    private boolean closed;
+
+    private PooledConnection(Connection physical, Consumer<Connection> release) {
+        this.physical = physical;
+        this.release = release;
+    }
+
+    static Connection wrap(Connection physical, Consumer<Connection> release) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnection(physical, release));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnection[" + physical + "]";
+            default:
+                break;
+        }
+        if (closed) {
+            throw new SQLException("Соединение уже возвращено в пул");
+        }
+
+        Object result;
+        try {
+            result = method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (result instanceof Statement) {
+            statements.add((Statement) result);
+        }
+        return result;
+    }
+
+    private void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Statement statement : statements) {
+            try {
+                statement.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        statements.clear();
+        release.accept(physical);
+    }
+}
@@ -4,24 +4,52 @@ import model.Reservation;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class ReservationDAO {
 
+    private static final int NOT_DELETED = 0;
+    private static final int DELETED_CURRENT = 1;
+    private static final int DELETED_ARCHIVED = 2;
+
+    private static final List<Consumer<String>> changeListeners = new CopyOnWriteArrayList<>();
+
+    public static void addReservationChangeListener(Consumer<String> listener) {
+        changeListeners.add(listener);
+    }
+
+    static void fireReservationsChanged(String date) {
+        for (Consumer<String> listener : changeListeners) {
+            try {
+                listener.accept(date);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public static List<Reservation> getAllReservations() {
         List<Reservation> list = new ArrayList<>();
-        String sql = "SELECT r.id, c.name, r.date, r.start_time, r.duration, r.guests, r.status, r.table_id " +
-                "FROM reservations r " +
+        String sql = "SELECT r.id, c.name, r.date, r.start_time, r.duration, r.guests, r.status, r.table_id, " +
+                "t.id AS known_table, t.zone, t.capacity " +
+                "FROM reservations_history r " +
                 "JOIN clients c ON r.client_id = c.id " +
+                "LEFT JOIN tables t ON r.table_id = t.id " +
                 "ORDER BY r.date DESC, r.start_time DESC";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
                 int tableId = rs.getInt("table_id");
-                String tableInfo = TableDAO.getTableInfo(tableId);
+                String tableInfo = rs.getObject("known_table") != null
+                        ? "Столик №" + tableId + ": " + rs.getString("zone") + " (" + rs.getInt("capacity") + " мест)"
+                        : "Неизвестный столик";
 
                 list.add(new Reservation(
                         rs.getInt("id"),
@@ -31,7 +59,8 @@ public class ReservationDAO {
                         rs.getInt("duration"),
                         rs.getInt("guests"),
                         rs.getString("status"),
-                        tableInfo
+                        tableInfo,
+                        tableId
                 ));
             }
         } catch (Exception e) {
@@ -42,13 +71,15 @@ public class ReservationDAO {
 
     public static List<Reservation> getReservationsByDate(String date) {
         List<Reservation> list = new ArrayList<>();
-        String sql = "SELECT r.id, c.name, r.date, r.start_time, r.duration, r.guests, r.status, r.table_id " +
-                "FROM reservations r " +
+        String sql = "SELECT r.id, c.name, r.date, r.start_time, r.duration, r.guests, r.status, r.table_id, " +
+                "t.id AS known_table, t.zone, t.capacity " +
+                "FROM reservations_history r " +
                 "JOIN clients c ON r.client_id = c.id " +
+                "LEFT JOIN tables t ON r.table_id = t.id " +
                 "WHERE r.date = ? " +
                 "ORDER BY r.start_time";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, date);
@@ -56,7 +87,9 @@ public class ReservationDAO {
 
             while (rs.next()) {
                 int tableId = rs.getInt("table_id");
-                String tableInfo = TableDAO.getTableInfo(tableId);
+                String tableInfo = rs.getObject("known_table") != null
+                        ? "Столик №" + tableId + ": " + rs.getString("zone") + " (" + rs.getInt("capacity") + " мест)"
+                        : "Неизвестный столик";
 
                 list.add(new Reservation(
                         rs.getInt("id"),
@@ -66,7 +99,8 @@ public class ReservationDAO {
                         rs.getInt("duration"),
                         rs.getInt("guests"),
                         rs.getString("status"),
-                        tableInfo
+                        tableInfo,
+                        tableId
                 ));
             }
         } catch (Exception e) {
@@ -83,7 +117,8 @@ public class ReservationDAO {
                 "WHERE t.capacity >= ? AND t.status != 'На ремонте' " +
                 "ORDER BY t.capacity, t.zone";
 
-        try (Connection conn = Database.getConnection();
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, guests);
@@ -112,7 +147,8 @@ public class ReservationDAO {
                 "WHERE t.capacity >= ? AND t.status != 'На ремонте' " +
                 "ORDER BY t.capacity, t.zone";
 
-        try (Connection conn = Database.getConnection();
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, guests);
@@ -134,10 +170,11 @@ public class ReservationDAO {
     }
 
     private static boolean isTableAvailable(int tableId, String date, String startTime, int duration) {
-        String sql = "SELECT start_time, duration FROM reservations " +
-                "WHERE table_id = ? AND date = ? AND status IN ('Подтверждено', 'Активно')";
+        String sql = "SELECT r.start_time, r.duration, r.guests, r.status, t.zone FROM reservations r " +
+                "LEFT JOIN tables t ON r.table_id = t.id " +
+                "WHERE r.table_id = ? AND r.date = ? AND r.status IN ('Подтверждено', 'Активно')";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, tableId);
@@ -149,7 +186,8 @@ public class ReservationDAO {
 
             while (rs.next()) {
                 String dbStart = rs.getString("start_time");
-                int dbDuration = rs.getInt("duration");
+                int dbDuration = TurnTimeModel.blockingMinutes(rs.getInt("guests"), date, dbStart,
+                        rs.getString("zone"), rs.getInt("duration"), rs.getString("status"));
 
                 int dbStartMin = timeToMinutes(dbStart);
                 int dbEndMin = dbStartMin + dbDuration;
@@ -168,10 +206,11 @@ public class ReservationDAO {
 
     public static boolean isTableAvailableForEdit(int tableId, String date, String startTime,
                                                   int duration, int excludeReservationId) {
-        String sql = "SELECT start_time, duration FROM reservations " +
-                "WHERE table_id = ? AND date = ? AND id != ? AND status IN ('Подтверждено', 'Активно')";
+        String sql = "SELECT r.start_time, r.duration, r.guests, r.status, t.zone FROM reservations r " +
+                "LEFT JOIN tables t ON r.table_id = t.id " +
+                "WHERE r.table_id = ? AND r.date = ? AND r.id != ? AND r.status IN ('Подтверждено', 'Активно')";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, tableId);
@@ -184,7 +223,8 @@ public class ReservationDAO {
 
             while (rs.next()) {
                 String dbStart = rs.getString("start_time");
-                int dbDuration = rs.getInt("duration");
+                int dbDuration = TurnTimeModel.blockingMinutes(rs.getInt("guests"), date, dbStart,
+                        rs.getString("zone"), rs.getInt("duration"), rs.getString("status"));
 
                 int dbStartMin = timeToMinutes(dbStart);
                 int dbEndMin = dbStartMin + dbDuration;
@@ -203,35 +243,40 @@ public class ReservationDAO {
 
     public static boolean addReservationWithStatus(int clientId, int tableId, String date,
                                                    String startTime, int duration, int guests, String status) {
-        try (Connection conn = Database.getConnection()) {
-
-            if (!isTableAvailable(tableId, date, startTime, duration)) {
-                return false;
-            }
-
-            String endTime = calculateEndTime(startTime, duration);
-
-            PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO reservations (client_id, table_id, date, start_time, end_time, duration, guests, status) " +
-                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        String endTime = calculateEndTime(startTime, duration);
 
-            ps.setInt(1, clientId);
-            ps.setInt(2, tableId);
-            ps.setString(3, date);
-            ps.setString(4, startTime);
-            ps.setString(5, endTime);
-            ps.setInt(6, duration);
-            ps.setInt(7, guests);
-            ps.setString(8, status);
+        try {
+            boolean inserted = WriteQueue.execute(conn -> {
+                if (!isTableAvailable(tableId, date, startTime, duration)) {
+                    return false;
+                }
 
-            int rows = ps.executeUpdate();
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO reservations (client_id, table_id, date, start_time, end_time, duration, guests, status) " +
+                                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+
+                    ps.setInt(1, clientId);
+                    ps.setInt(2, tableId);
+                    ps.setString(3, date);
+                    ps.setString(4, startTime);
+                    ps.setString(5, endTime);
+                    ps.setInt(6, duration);
+                    ps.setInt(7, guests);
+                    ps.setString(8, status);
+
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                SummaryDAO.refreshDay(conn, date);
+                return true;
+            });
 
-            if (rows > 0) {
+            if (inserted) {
                 updateTableStatusBasedOnReservation(tableId, status, date, startTime);
-                return true;
+                fireReservationsChanged(date);
             }
-
-            return false;
+            return inserted;
 
         } catch (SQLException e) {
             if (e.getMessage().contains("UNIQUE constraint")) {
@@ -245,49 +290,191 @@ public class ReservationDAO {
         }
     }
 
-    public static boolean updateReservation(int reservationId, int tableId, String date,
-                                            String startTime, int duration, int guests, String status) {
-        try (Connection conn = Database.getConnection()) {
+    public static boolean addCombinedReservation(int clientId, List<Integer> tableIds, String date,
+                                                 String startTime, int duration, int guests, String status) {
+        if (tableIds.isEmpty()) {
+            return false;
+        }
 
-            int currentTableId = getTableIdForReservation(reservationId);
-            String currentDate = getReservationDate(reservationId);
-            String currentStartTime = getReservationStartTime(reservationId);
-            int currentDuration = getReservationDuration(reservationId);
+        String endTime = calculateEndTime(startTime, duration);
 
-            boolean timeChanged = !date.equals(currentDate) || !startTime.equals(currentStartTime) || duration != currentDuration;
-            boolean tableChanged = currentTableId != tableId;
+        try {
+            boolean inserted = WriteQueue.execute(conn -> {
+                for (int tableId : tableIds) {
+                    if (!isTableAvailable(tableId, date, startTime, duration)) {
+                        return false;
+                    }
+                }
 
-            if (timeChanged || tableChanged) {
-                if (!isTableAvailableForEdit(tableId, date, startTime, duration, reservationId)) {
-                    return false;
+                try (PreparedStatement capacityPs = conn.prepareStatement("SELECT capacity FROM tables WHERE id = ?");
+                     PreparedStatement insert = conn.prepareStatement(
+                             "INSERT INTO reservations (client_id, table_id, date, start_time, end_time, duration, guests, status) " +
+                                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+                     PreparedStatement lastId = conn.prepareStatement("SELECT last_insert_rowid()");
+                     PreparedStatement link = conn.prepareStatement("UPDATE reservations SET combo_id = ? WHERE id = ?")) {
+
+                    int remaining = guests;
+                    int comboId = -1;
+                    for (int i = 0; i < tableIds.size(); i++) {
+                        int tableId = tableIds.get(i);
+
+                        int seats = remaining;
+                        if (i < tableIds.size() - 1) {
+                            capacityPs.setInt(1, tableId);
+                            ResultSet rs = capacityPs.executeQuery();
+                            seats = Math.min(remaining, rs.next() ? rs.getInt("capacity") : 0);
+                            rs.close();
+                        }
+                        remaining -= seats;
+
+                        insert.setInt(1, clientId);
+                        insert.setInt(2, tableId);
+                        insert.setString(3, date);
+                        insert.setString(4, startTime);
+                        insert.setString(5, endTime);
+                        insert.setInt(6, duration);
+                        insert.setInt(7, seats);
+                        insert.setString(8, status);
+                        insert.executeUpdate();
+
+                        ResultSet rs = lastId.executeQuery();
+                        rs.next();
+                        int id = rs.getInt(1);
+                        rs.close();
+                        if (comboId < 0) {
+                            comboId = id;
+                        }
+
+                        link.setInt(1, comboId);
+                        link.setInt(2, id);
+                        link.executeUpdate();
+                    }
                 }
+                SummaryDAO.refreshDay(conn, date);
+                return true;
+            });
+
+            if (!inserted) {
+                return false;
             }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
 
-            String endTime = calculateEndTime(startTime, duration);
+        for (int tableId : tableIds) {
+            updateTableStatusBasedOnReservation(tableId, status, date, startTime);
+        }
+        fireReservationsChanged(date);
+        return true;
+    }
+
+    public static boolean updateReservation(int reservationId, int tableId, String date,
+                                            String startTime, int duration, int guests, String status) {
+        String endTime = calculateEndTime(startTime, duration);
 
-            PreparedStatement ps = conn.prepareStatement(
-                    "UPDATE reservations SET table_id = ?, date = ?, start_time = ?, " +
-                            "end_time = ?, duration = ?, guests = ?, status = ? WHERE id = ?");
+        int[] currentTableId = new int[1];
+        String[] currentDate = new String[1];
+        Map<Integer, Integer> siblingTables = new HashMap<>();
 
-            ps.setInt(1, tableId);
-            ps.setString(2, date);
-            ps.setString(3, startTime);
-            ps.setString(4, endTime);
-            ps.setInt(5, duration);
-            ps.setInt(6, guests);
-            ps.setString(7, status);
-            ps.setInt(8, reservationId);
+        try {
+            boolean success = WriteQueue.execute(conn -> {
+                Savepoint restored = conn.setSavepoint();
+                ArchiveDAO.restoreToLive(conn, reservationId);
+
+                boolean timeChanged;
+                try (PreparedStatement currentPs = conn.prepareStatement(
+                        "SELECT table_id, date, start_time, duration FROM reservations WHERE id = ?")) {
+                    currentPs.setInt(1, reservationId);
+                    ResultSet rs = currentPs.executeQuery();
+                    if (!rs.next()) {
+                        return rollBack(conn, restored);
+                    }
+                    currentTableId[0] = rs.getInt("table_id");
+                    currentDate[0] = rs.getString("date");
+                    timeChanged = !date.equals(currentDate[0]) || !startTime.equals(rs.getString("start_time"))
+                            || duration != rs.getInt("duration");
+                    rs.close();
+                }
+
+                if ((timeChanged || currentTableId[0] != tableId)
+                        && !isTableAvailableForEdit(tableId, date, startTime, duration, reservationId)) {
+                    return rollBack(conn, restored);
+                }
+
+                try (PreparedStatement siblingsPs = conn.prepareStatement(
+                        "SELECT id, table_id FROM reservations " +
+                                "WHERE combo_id = (SELECT combo_id FROM reservations WHERE id = ?) AND id != ?")) {
+                    siblingsPs.setInt(1, reservationId);
+                    siblingsPs.setInt(2, reservationId);
+                    ResultSet rs = siblingsPs.executeQuery();
+                    while (rs.next()) {
+                        siblingTables.put(rs.getInt("id"), rs.getInt("table_id"));
+                    }
+                    rs.close();
+                }
+                if (timeChanged) {
+                    for (Map.Entry<Integer, Integer> sibling : siblingTables.entrySet()) {
+                        if (!isTableAvailableForEdit(sibling.getValue(), date, startTime, duration, sibling.getKey())) {
+                            return rollBack(conn, restored);
+                        }
+                    }
+                }
 
-            boolean success = ps.executeUpdate() > 0;
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE reservations SET table_id = ?, date = ?, start_time = ?, " +
+                                "end_time = ?, duration = ?, guests = ?, status = ? WHERE id = ?");
+                     PreparedStatement siblingPs = conn.prepareStatement(
+                             "UPDATE reservations SET date = ?, start_time = ?, end_time = ?, duration = ?, status = ? " +
+                                     "WHERE id = ?")) {
+
+                    ps.setInt(1, tableId);
+                    ps.setString(2, date);
+                    ps.setString(3, startTime);
+                    ps.setString(4, endTime);
+                    ps.setInt(5, duration);
+                    ps.setInt(6, guests);
+                    ps.setString(7, status);
+                    ps.setInt(8, reservationId);
+                    if (ps.executeUpdate() == 0) {
+                        return rollBack(conn, restored);
+                    }
+
+                    for (int siblingId : siblingTables.keySet()) {
+                        siblingPs.setString(1, date);
+                        siblingPs.setString(2, startTime);
+                        siblingPs.setString(3, endTime);
+                        siblingPs.setInt(4, duration);
+                        siblingPs.setString(5, status);
+                        siblingPs.setInt(6, siblingId);
+                        siblingPs.addBatch();
+                    }
+                    siblingPs.executeBatch();
+                }
+                conn.releaseSavepoint(restored);
+                SummaryDAO.refreshDay(conn, date);
+                if (!date.equals(currentDate[0])) {
+                    SummaryDAO.refreshDay(conn, currentDate[0]);
+                }
+                return true;
+            });
 
             if (success) {
                 updateTableStatusBasedOnReservation(tableId, status, date, startTime);
+                for (int siblingTable : siblingTables.values()) {
+                    updateTableStatusBasedOnReservation(siblingTable, status, date, startTime);
+                }
 
-                if (tableChanged && currentTableId > 0) {
-                    if (!hasActiveReservations(currentTableId)) {
-                        TableDAO.updateTableStatus(currentTableId, "Свободен");
+                if (currentTableId[0] != tableId && currentTableId[0] > 0) {
+                    if (!hasActiveReservations(currentTableId[0])) {
+                        TableDAO.updateTableStatus(currentTableId[0], "Свободен");
                     }
                 }
+
+                fireReservationsChanged(date);
+                if (!date.equals(currentDate[0])) {
+                    fireReservationsChanged(currentDate[0]);
+                }
             }
 
             return success;
@@ -299,36 +486,69 @@ public class ReservationDAO {
     }
 
     public static boolean updateReservationStatus(int reservationId, String newStatus) {
-        try (Connection conn = Database.getConnection()) {
+        String timestampSql = newStatus.equals("Активно") ? ", seated_at = IFNULL(seated_at, ?)"
+                : newStatus.equals("Завершено") ? ", completed_at = ?" : "";
+        List<Integer> tableIds = new ArrayList<>();
 
-            PreparedStatement selectPs = conn.prepareStatement(
-                    "SELECT table_id, date, start_time FROM reservations WHERE id = ?");
-            selectPs.setInt(1, reservationId);
-            ResultSet rs = selectPs.executeQuery();
-
-            if (rs.next()) {
-                int tableId = rs.getInt("table_id");
-
-                PreparedStatement updatePs = conn.prepareStatement(
-                        "UPDATE reservations SET status = ? WHERE id = ?");
-                updatePs.setString(1, newStatus);
-                updatePs.setInt(2, reservationId);
-
-                boolean success = updatePs.executeUpdate() > 0;
+        try {
+            String date = WriteQueue.execute(conn -> {
+                ArchiveDAO.restoreToLive(conn, reservationId);
+
+                List<Integer> ids = new ArrayList<>();
+                String reservationDate = null;
+                try (PreparedStatement selectPs = conn.prepareStatement(
+                        "SELECT id, table_id, date FROM reservations " +
+                                "WHERE id = ? OR combo_id = (SELECT combo_id FROM reservations WHERE id = ?)")) {
+                    selectPs.setInt(1, reservationId);
+                    selectPs.setInt(2, reservationId);
+                    ResultSet rs = selectPs.executeQuery();
+                    while (rs.next()) {
+                        ids.add(rs.getInt("id"));
+                        tableIds.add(rs.getInt("table_id"));
+                        reservationDate = rs.getString("date");
+                    }
+                    rs.close();
+                }
+                if (ids.isEmpty()) {
+                    return null;
+                }
 
-                if (success) {
-                    if (newStatus.equals("Активно")) {
-                        TableDAO.updateTableStatus(tableId, "Занят");
-                    } else if (newStatus.equals("Завершено") || newStatus.equals("Отменено") || newStatus.equals("Неявка")) {
-                        if (!hasActiveReservations(tableId)) {
-                            TableDAO.updateTableStatus(tableId, "Свободен");
+                String timestamp = LocalDateTime.now().withSecond(0).withNano(0).toString();
+                try (PreparedStatement updatePs = conn.prepareStatement(
+                        "UPDATE reservations SET status = ?" + timestampSql + " WHERE id = ?")) {
+                    for (int id : ids) {
+                        updatePs.setString(1, newStatus);
+                        if (timestampSql.isEmpty()) {
+                            updatePs.setInt(2, id);
+                        } else {
+                            updatePs.setString(2, timestamp);
+                            updatePs.setInt(3, id);
                         }
+                        updatePs.addBatch();
                     }
+                    updatePs.executeBatch();
                 }
+                SummaryDAO.refreshDay(conn, reservationDate);
+                return reservationDate;
+            });
 
-                return success;
+            if (date == null) {
+                return false;
             }
-            return false;
+
+            for (int tableId : tableIds) {
+                if (newStatus.equals("Активно")) {
+                    TableDAO.updateTableStatus(tableId, "Занят");
+                } else if (newStatus.equals("Завершено") || newStatus.equals("Отменено") || newStatus.equals("Неявка")) {
+                    if (!hasActiveReservations(tableId)) {
+                        TableDAO.updateTableStatus(tableId, "Свободен");
+                    } else {
+                        TableDAO.fireTableReleased(tableId);
+                    }
+                }
+            }
+            fireReservationsChanged(date);
+            return true;
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -337,29 +557,130 @@ public class ReservationDAO {
     }
 
     public static boolean deleteReservation(int reservationId) {
-        int tableId = getTableIdForReservation(reservationId);
+        List<Integer> siblings = getComboSiblingIds(reservationId);
+        boolean success = deleteSingleReservation(reservationId);
+        if (success) {
+            for (int siblingId : siblings) {
+                deleteSingleReservation(siblingId);
+            }
+        }
+        return success;
+    }
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement("DELETE FROM reservations WHERE id = ?")) {
+    private static boolean deleteSingleReservation(int reservationId) {
+        int tableId = getTableIdForReservation(reservationId);
+        String date = getHistoryReservationDate(reservationId);
 
-            ps.setInt(1, reservationId);
-            boolean success = ps.executeUpdate() > 0;
+        try {
+            int deleted = WriteQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM reservations WHERE id = ?")) {
+                    ps.setInt(1, reservationId);
+                    if (ps.executeUpdate() > 0) {
+                        SummaryDAO.refreshDay(conn, date);
+                        return DELETED_CURRENT;
+                    }
+                }
+                try (PreparedStatement archivePs = conn.prepareStatement(
+                        "DELETE FROM reservations_archive WHERE id = ?")) {
+                    archivePs.setInt(1, reservationId);
+                    if (archivePs.executeUpdate() == 0) {
+                        return NOT_DELETED;
+                    }
+                }
+                SummaryDAO.refreshDay(conn, date);
+                return DELETED_ARCHIVED;
+            });
 
-            if (success && tableId > 0) {
+            if (deleted == DELETED_CURRENT && tableId > 0) {
                 if (!hasActiveReservations(tableId)) {
                     TableDAO.updateTableStatus(tableId, "Свободен");
                 }
             }
-            return success;
 
+            if (deleted != NOT_DELETED) {
+                fireReservationsChanged(date);
+            }
+            return deleted != NOT_DELETED;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public static boolean reassignTables(String date, Map<Integer, Integer> tableByReservation,
+                                         Map<Integer, Integer> plannedFromTables) {
+        if (tableByReservation.isEmpty()) {
+            return true;
+        }
+
+        Map<Integer, Integer> previousTables = new HashMap<>();
+        Map<Integer, String> startTimes = new HashMap<>();
+
+        try {
+            boolean reassigned = WriteQueue.execute(conn -> {
+                Map<Integer, Integer> durations = new HashMap<>();
+                try (PreparedStatement select = conn.prepareStatement(
+                        "SELECT table_id, start_time, duration FROM reservations " +
+                                "WHERE id = ? AND date = ? AND status = 'Подтверждено' AND combo_id IS NULL");
+                     PreparedStatement update = conn.prepareStatement(
+                             "UPDATE reservations SET table_id = ? WHERE id = ?")) {
+
+                    for (Map.Entry<Integer, Integer> entry : tableByReservation.entrySet()) {
+                        select.setInt(1, entry.getKey());
+                        select.setString(2, date);
+                        ResultSet rs = select.executeQuery();
+                        if (!rs.next() || !plannedFromTables.get(entry.getKey()).equals(rs.getInt("table_id"))) {
+                            return false;
+                        }
+                        previousTables.put(entry.getKey(), rs.getInt("table_id"));
+                        startTimes.put(entry.getKey(), rs.getString("start_time"));
+                        durations.put(entry.getKey(), rs.getInt("duration"));
+                        rs.close();
+
+                        update.setInt(1, entry.getValue());
+                        update.setInt(2, entry.getKey());
+                        update.addBatch();
+                    }
+
+                    Savepoint moved = conn.setSavepoint();
+                    update.executeBatch();
+                    for (Map.Entry<Integer, Integer> entry : tableByReservation.entrySet()) {
+                        if (!isTableAvailableForEdit(entry.getValue(), date, startTimes.get(entry.getKey()),
+                                durations.get(entry.getKey()), entry.getKey())) {
+                            conn.rollback(moved);
+                            conn.releaseSavepoint(moved);
+                            return false;
+                        }
+                    }
+                    conn.releaseSavepoint(moved);
+                }
+                SummaryDAO.refreshDay(conn, date);
+                return true;
+            });
+
+            if (!reassigned) {
+                return false;
+            }
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
+
+        for (Map.Entry<Integer, Integer> entry : tableByReservation.entrySet()) {
+            updateTableStatusBasedOnReservation(entry.getValue(), "Подтверждено", date, startTimes.get(entry.getKey()));
+        }
+        for (int previousTable : previousTables.values()) {
+            if (!tableByReservation.containsValue(previousTable) && !hasActiveReservations(previousTable)) {
+                TableDAO.updateTableStatus(previousTable, "Свободен");
+            }
+        }
+        fireReservationsChanged(date);
+        return true;
     }
 
     public static int createOrGetClient(String clientName) {
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement("SELECT id FROM clients WHERE name = ?")) {
 
             ps.setString(1, clientName);
@@ -372,17 +693,26 @@ public class ReservationDAO {
             e.printStackTrace();
         }
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement("INSERT INTO clients (name) VALUES (?)",
-                     Statement.RETURN_GENERATED_KEYS)) {
+        try {
+            return WriteQueue.execute(conn -> {
+                try (PreparedStatement select = conn.prepareStatement("SELECT id FROM clients WHERE name = ?")) {
+                    select.setString(1, clientName);
+                    ResultSet rs = select.executeQuery();
+                    if (rs.next()) {
+                        return rs.getInt("id");
+                    }
+                }
 
-            ps.setString(1, clientName);
-            ps.executeUpdate();
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO clients (name) VALUES (?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
 
-            ResultSet rs = ps.getGeneratedKeys();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+                    ps.setString(1, clientName);
+                    ps.executeUpdate();
+
+                    ResultSet rs = ps.getGeneratedKeys();
+                    return rs.next() ? rs.getInt(1) : 1;
+                }
+            });
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -393,7 +723,7 @@ public class ReservationDAO {
         String sql = "SELECT COUNT(*) as count FROM reservations " +
                 "WHERE table_id = ? AND status IN ('Подтверждено', 'Активно')";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, tableId);
@@ -434,74 +764,84 @@ public class ReservationDAO {
         }
     }
 
-    private static int getTableIdForReservation(int reservationId) {
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement("SELECT table_id FROM reservations WHERE id = ?")) {
+    public static Map<Integer, Integer> getComboIdsByDate(String date) {
+        Map<Integer, Integer> comboIds = new HashMap<>();
+        String sql = "SELECT id, combo_id FROM reservations WHERE date = ? AND combo_id IS NOT NULL";
 
-            ps.setInt(1, reservationId);
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, date);
             ResultSet rs = ps.executeQuery();
 
-            if (rs.next()) {
-                return rs.getInt("table_id");
+            while (rs.next()) {
+                comboIds.put(rs.getInt("id"), rs.getInt("combo_id"));
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return -1;
+        return comboIds;
+    }
+
+    private static boolean rollBack(Connection conn, Savepoint savepoint) throws SQLException {
+        conn.rollback(savepoint);
+        conn.releaseSavepoint(savepoint);
+        return false;
     }
 
-    private static String getReservationDate(int reservationId) {
-        String sql = "SELECT date FROM reservations WHERE id = ?";
+    private static List<Integer> getComboSiblingIds(int reservationId) {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT id FROM reservations " +
+                "WHERE combo_id = (SELECT combo_id FROM reservations WHERE id = ?) AND id != ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, reservationId);
+            ps.setInt(2, reservationId);
             ResultSet rs = ps.executeQuery();
 
-            if (rs.next()) {
-                return rs.getString("date");
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return "";
+        return ids;
     }
 
-    private static String getReservationStartTime(int reservationId) {
-        String sql = "SELECT start_time FROM reservations WHERE id = ?";
-
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+    private static int getTableIdForReservation(int reservationId) {
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT table_id FROM reservations WHERE id = ?")) {
 
             ps.setInt(1, reservationId);
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                return rs.getString("start_time");
+                return rs.getInt("table_id");
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return "";
+        return -1;
     }
 
-    private static int getReservationDuration(int reservationId) {
-        String sql = "SELECT duration FROM reservations WHERE id = ?";
+    private static String getHistoryReservationDate(int reservationId) {
+        String sql = "SELECT date FROM reservations_history WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, reservationId);
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                return rs.getInt("duration");
+                return rs.getString("date");
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return 0;
+        return "";
     }
 
     private static String calculateEndTime(String startTime, int duration) {
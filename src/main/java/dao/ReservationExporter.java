@@ -0,0 +1,189 @@
+package dao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+public class ReservationExporter {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int PROGRESS_STEP = 10_000;
+
+    private static final String[] COLUMNS = {
+            "id", "client", "date", "start_time", "end_time", "duration",
+            "guests", "status", "table_id", "zone", "capacity"
+    };
+
+    public static long export(Path target, Format format, boolean gzip,
+                              String fromDate, String toDate, LongConsumer progress) {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            long rows = 0;
+            try (Connection conn = Database.getReadConnection();
+                 PreparedStatement live = prepare(conn, "reservations", fromDate, toDate);
+                 PreparedStatement archived = prepare(conn, "reservations_archive", fromDate, toDate);
+                 ResultSet liveRows = live.executeQuery();
+                 ResultSet archivedRows = archived.executeQuery();
+                 Writer out = openWriter(partial, gzip)) {
+
+                if (format == Format.CSV) {
+                    out.write(String.join(",", COLUMNS));
+                    out.write('\n');
+                }
+
+                boolean hasLive = liveRows.next();
+                boolean hasArchived = archivedRows.next();
+                while (hasLive || hasArchived) {
+                    ResultSet rs = !hasArchived || (hasLive && compare(liveRows, archivedRows) <= 0)
+                            ? liveRows : archivedRows;
+                    if (format == Format.CSV) {
+                        writeCsvRow(out, rs);
+                    } else {
+                        writeJsonRow(out, rs);
+                    }
+                    rows++;
+                    if (progress != null && rows % PROGRESS_STEP == 0) {
+                        progress.accept(rows);
+                    }
+
+                    if (rs == liveRows) {
+                        hasLive = liveRows.next();
+                    } else {
+                        hasArchived = archivedRows.next();
+                    }
+                }
+            }
+
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            if (progress != null) {
+                progress.accept(rows);
+            }
+            return rows;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+            }
+            return -1;
+        }
+    }
+
+    private static PreparedStatement prepare(Connection conn, String table,
+                                             String fromDate, String toDate) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT r.id, c.name, r.date, r.start_time, r.end_time, r.duration, " +
+                "r.guests, r.status, r.table_id, t.zone, t.capacity " +
+                "FROM " + table + " r " +
+                "LEFT JOIN clients c ON r.client_id = c.id " +
+                "LEFT JOIN tables t ON r.table_id = t.id");
+        if (fromDate != null && toDate != null) {
+            sql.append(" WHERE r.date BETWEEN ? AND ?");
+        } else if (fromDate != null) {
+            sql.append(" WHERE r.date >= ?");
+        } else if (toDate != null) {
+            sql.append(" WHERE r.date <= ?");
+        }
+        sql.append(" ORDER BY r.date, r.start_time");
+
+        PreparedStatement ps = conn.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        int index = 1;
+        if (fromDate != null) {
+            ps.setString(index++, fromDate);
+        }
+        if (toDate != null) {
+            ps.setString(index, toDate);
+        }
+        ps.setFetchSize(PROGRESS_STEP);
+        return ps;
+    }
+
+    private static int compare(ResultSet a, ResultSet b) throws SQLException {
+        int byDate = a.getString(3).compareTo(b.getString(3));
+        return byDate != 0 ? byDate : a.getString(4).compareTo(b.getString(4));
+    }
+
+    private static Writer openWriter(Path target, boolean gzip) throws IOException {
+        OutputStream stream = Files.newOutputStream(target);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void writeCsvRow(Writer out, ResultSet rs) throws SQLException, IOException {
+        for (int i = 1; i <= COLUMNS.length; i++) {
+            if (i > 1) {
+                out.write(',');
+            }
+            String value = rs.getString(i);
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 ||
+                    value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeJsonRow(Writer out, ResultSet rs) throws SQLException, IOException {
+        out.write('{');
+        for (int i = 1; i <= COLUMNS.length; i++) {
+            if (i > 1) {
+                out.write(',');
+            }
+            out.write('"');
+            out.write(COLUMNS[i - 1]);
+            out.write("\":");
+
+            Object value = rs.getObject(i);
+            if (value == null) {
+                out.write("null");
+            } else if (value instanceof Number) {
+                out.write(value.toString());
+            } else {
+                writeJsonString(out, value.toString());
+            }
+        }
+        out.write("}\n");
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,541 @@
+package dao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+
+public class ReservationImporter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = Integer.getInteger("restaurant.import.chunkRows", 1_000);
+
+    private static final Set<String> STATUSES = new HashSet<>(Arrays.asList(
+            "Подтверждено", "Активно", "Завершено", "Отменено", "Неявка"));
+
+    private static final String INSERT_SQL =
+            "INSERT INTO reservations (client_id, table_id, date, start_time, end_time, duration, guests, status) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String CONFLICT_SQL = "SELECT 1 FROM reservations " +
+            "WHERE table_id = ? AND date = ? AND status IN ('Подтверждено', 'Активно') " +
+            "AND start_time < ? AND end_time > ? LIMIT 1";
+
+    private static final class ImportRow {
+        long lineNumber;
+        String line;
+        String clientName;
+        int tableId;
+        String date;
+        String startTime;
+        int startMinutes;
+        int duration;
+        int guests;
+        String status;
+
+        boolean isActive() {
+            return status.equals("Подтверждено") || status.equals("Активно");
+        }
+    }
+
+    public static Map<String, Object> importReservations(Path source, Path rejectReport, LongConsumer progress) {
+        Map<String, Object> report = new HashMap<>();
+        long started = System.currentTimeMillis();
+        long imported = 0;
+        long committed = 0;
+        long rejected = 0;
+        String[] dateRange = new String[2];
+
+        try (BufferedReader in = openReader(source);
+             Writer rejects = Files.newBufferedWriter(rejectReport, StandardCharsets.UTF_8)) {
+
+            Map<String, Integer> header = readHeader(in);
+            for (String required : new String[]{"client", "table_id", "date", "start_time", "duration", "guests"}) {
+                if (!header.containsKey(required)) {
+                    throw new IllegalArgumentException("В файле нет колонки " + required);
+                }
+            }
+
+            Set<Integer> tableIds;
+            Map<String, Integer> clients;
+            Map<String, BitSet> occupancy;
+            try (Connection conn = Database.getReadConnection()) {
+                tableIds = loadTableIds(conn);
+                clients = loadClients(conn);
+                occupancy = loadActiveOccupancy(conn);
+            }
+
+            rejects.write("line,reason,row\n");
+
+            List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            long lineNumber = 1;
+            String line;
+            while (true) {
+                line = readRecord(in);
+                if (line != null) {
+                    lineNumber++;
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    ImportRow row = parseRow(parseCsvLine(line), header, lineNumber, line);
+                    String reason = validate(row, tableIds, occupancy);
+                    if (reason != null) {
+                        rejected++;
+                        writeReject(rejects, row, reason);
+                        continue;
+                    }
+                    chunk.add(row);
+                    imported++;
+                }
+
+                if (chunk.size() == CHUNK_SIZE || (line == null && !chunk.isEmpty())) {
+                    List<ImportRow> conflicts = writeChunk(chunk, clients);
+                    for (ImportRow conflict : conflicts) {
+                        occupancy.get(conflict.date + "#" + conflict.tableId)
+                                .clear(conflict.startMinutes, conflict.startMinutes + conflict.duration);
+                        writeReject(rejects, conflict, "Столик уже занят в это время");
+                    }
+                    for (ImportRow row : chunk) {
+                        if (!conflicts.contains(row)) {
+                            widen(dateRange, row.date);
+                        }
+                    }
+                    imported -= conflicts.size();
+                    rejected += conflicts.size();
+                    committed = imported;
+                    chunk.clear();
+                    if (progress != null) {
+                        progress.accept(committed);
+                    }
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            report.put("error", e.getMessage());
+        } finally {
+            if (committed > 0) {
+                SummaryDAO.rebuild(dateRange[0], dateRange[1]);
+                ReservationDAO.fireReservationsChanged(null);
+            }
+        }
+
+        report.put("imported", committed);
+        report.put("rolledBack", imported - committed);
+        report.put("rejected", rejected);
+        report.put("millis", System.currentTimeMillis() - started);
+        return report;
+    }
+
+    public static Map<String, Object> importTables(Path source, Path rejectReport) {
+        Map<String, Object> report = new HashMap<>();
+        int imported = 0;
+        int rejected = 0;
+
+        try (BufferedReader in = openReader(source);
+             Writer rejects = Files.newBufferedWriter(rejectReport, StandardCharsets.UTF_8)) {
+
+            Map<String, Integer> header = readHeader(in);
+            if (!header.containsKey("capacity") || !header.containsKey("zone")) {
+                throw new IllegalArgumentException("В файле должны быть колонки capacity и zone");
+            }
+            boolean withIds = header.containsKey("id");
+
+            Set<Integer> tableIds;
+            try (Connection conn = Database.getReadConnection()) {
+                tableIds = loadTableIds(conn);
+            }
+            rejects.write("line,reason,row\n");
+
+            List<Object[]> tables = new ArrayList<>();
+            long lineNumber = 1;
+            String line;
+            while ((line = readRecord(in)) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> fields = parseCsvLine(line);
+                int id = withIds ? parseInt(field(fields, header, "id")) : 0;
+                int capacity = parseInt(field(fields, header, "capacity"));
+                String zone = field(fields, header, "zone");
+                String status = field(fields, header, "status");
+
+                String reason = null;
+                if (withIds && id <= 0) {
+                    reason = "Некорректный номер столика";
+                } else if (withIds && !tableIds.add(id)) {
+                    reason = "Столик с таким номером уже есть";
+                } else if (capacity <= 0 || capacity > 50) {
+                    reason = "Некорректная вместимость";
+                } else if (zone == null || zone.isEmpty()) {
+                    reason = "Не указана зона";
+                }
+
+                if (reason != null) {
+                    rejected++;
+                    rejects.write(lineNumber + "," + reason + ",\"" + line.replace("\"", "\"\"") + "\"\n");
+                    continue;
+                }
+                tables.add(new Object[]{withIds ? id : null, capacity, zone,
+                        status == null || status.isEmpty() ? "Свободен" : status});
+            }
+
+            WriteQueue.execute(conn -> {
+                try (PreparedStatement insertTable = conn.prepareStatement(
+                             "INSERT INTO tables (id, capacity, zone, status) VALUES (?, ?, ?, ?)");
+                     PreparedStatement insertZone = conn.prepareStatement(
+                             "INSERT OR IGNORE INTO zones (name) VALUES (?)")) {
+
+                    Set<String> zones = new HashSet<>();
+                    for (Object[] table : tables) {
+                        if (table[0] != null) {
+                            insertTable.setInt(1, (Integer) table[0]);
+                        } else {
+                            insertTable.setNull(1, Types.INTEGER);
+                        }
+                        insertTable.setInt(2, (Integer) table[1]);
+                        insertTable.setString(3, (String) table[2]);
+                        insertTable.setString(4, (String) table[3]);
+                        insertTable.addBatch();
+
+                        if (zones.add((String) table[2])) {
+                            insertZone.setString(1, (String) table[2]);
+                            insertZone.addBatch();
+                        }
+                    }
+                    insertZone.executeBatch();
+                    insertTable.executeBatch();
+                }
+                return null;
+            });
+            imported = tables.size();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            report.put("error", e.getMessage());
+        }
+
+        report.put("imported", imported);
+        report.put("rejected", rejected);
+        return report;
+    }
+
+    private static ImportRow parseRow(List<String> fields, Map<String, Integer> header, long lineNumber, String line) {
+        ImportRow row = new ImportRow();
+        row.lineNumber = lineNumber;
+        row.line = line;
+        row.clientName = field(fields, header, "client");
+        row.date = field(fields, header, "date");
+        row.startTime = field(fields, header, "start_time");
+        row.status = field(fields, header, "status");
+        if (row.status == null || row.status.isEmpty()) {
+            row.status = "Подтверждено";
+        }
+        row.tableId = parseInt(field(fields, header, "table_id"));
+        row.duration = parseInt(field(fields, header, "duration"));
+        row.guests = parseInt(field(fields, header, "guests"));
+        row.startMinutes = parseTime(row.startTime);
+        return row;
+    }
+
+    private static String validate(ImportRow row, Set<Integer> tableIds, Map<String, BitSet> occupancy) {
+        if (row.clientName == null || row.clientName.isEmpty()) {
+            return "Не указан клиент";
+        } else if (!tableIds.contains(row.tableId)) {
+            return "Неизвестный столик";
+        } else if (!isValidDate(row.date)) {
+            return "Некорректная дата";
+        } else if (row.startMinutes < 0) {
+            return "Некорректное время";
+        } else if (row.duration <= 0) {
+            return "Некорректная длительность";
+        } else if (row.guests <= 0) {
+            return "Некорректное число гостей";
+        } else if (!STATUSES.contains(row.status)) {
+            return "Некорректный статус";
+        } else if (row.isActive()) {
+            BitSet busy = occupancy.computeIfAbsent(row.date + "#" + row.tableId, key -> new BitSet(1440));
+            int endMinutes = row.startMinutes + row.duration;
+            int conflict = busy.nextSetBit(row.startMinutes);
+            if (conflict >= 0 && conflict < endMinutes) {
+                return "Столик уже занят в это время";
+            }
+            busy.set(row.startMinutes, endMinutes);
+        }
+        return null;
+    }
+
+    private static List<ImportRow> writeChunk(List<ImportRow> chunk, Map<String, Integer> clients) throws Exception {
+        Map<String, Integer> newClients = new HashMap<>();
+        List<ImportRow> conflicts = WriteQueue.execute(conn -> {
+            List<ImportRow> busy = new ArrayList<>();
+            newClients.clear();
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL);
+                 PreparedStatement check = conn.prepareStatement(CONFLICT_SQL);
+                 PreparedStatement insertClient = conn.prepareStatement(
+                         "INSERT INTO clients (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+
+                for (ImportRow row : chunk) {
+                    String endTime = formatTime(row.startMinutes + row.duration);
+                    if (row.isActive()) {
+                        check.setInt(1, row.tableId);
+                        check.setString(2, row.date);
+                        check.setString(3, endTime);
+                        check.setString(4, row.startTime);
+                        try (ResultSet rs = check.executeQuery()) {
+                            if (rs.next()) {
+                                busy.add(row);
+                                continue;
+                            }
+                        }
+                    }
+
+                    Integer clientId = clients.get(row.clientName);
+                    if (clientId == null) {
+                        clientId = newClients.get(row.clientName);
+                    }
+                    if (clientId == null) {
+                        insertClient.setString(1, row.clientName);
+                        insertClient.executeUpdate();
+                        try (ResultSet keys = insertClient.getGeneratedKeys()) {
+                            keys.next();
+                            clientId = keys.getInt(1);
+                        }
+                        newClients.put(row.clientName, clientId);
+                    }
+
+                    insert.setInt(1, clientId);
+                    insert.setInt(2, row.tableId);
+                    insert.setString(3, row.date);
+                    insert.setString(4, row.startTime);
+                    insert.setString(5, endTime);
+                    insert.setInt(6, row.duration);
+                    insert.setInt(7, row.guests);
+                    insert.setString(8, row.status);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            return busy;
+        });
+        clients.putAll(newClients);
+        return conflicts;
+    }
+
+    private static void writeReject(Writer rejects, ImportRow row, String reason) throws IOException {
+        rejects.write(row.lineNumber + "," + reason + ",\"" + row.line.replace("\"", "\"\"") + "\"\n");
+    }
+
+    private static void widen(String[] range, String date) {
+        if (range[0] == null || date.compareTo(range[0]) < 0) {
+            range[0] = date;
+        }
+        if (range[1] == null || date.compareTo(range[1]) > 0) {
+            range[1] = date;
+        }
+    }
+
+    private static BufferedReader openReader(Path source) throws IOException {
+        InputStream stream = Files.newInputStream(source);
+        if (source.toString().endsWith(".gz")) {
+            stream = new GZIPInputStream(stream, BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static Map<String, Integer> readHeader(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new IllegalArgumentException("Пустой файл");
+        }
+        if (line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names = parseCsvLine(line);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase();
+            if (name.equals("client_name") || name.equals("name")) {
+                name = "client";
+            } else if (name.equals("time")) {
+                name = "start_time";
+            }
+            header.put(name, i);
+        }
+        return header;
+    }
+
+    private static String readRecord(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            return null;
+        }
+        StringBuilder record = null;
+        while (countQuotes(record != null ? record : line) % 2 != 0) {
+            String next = in.readLine();
+            if (next == null) {
+                break;
+            }
+            if (record == null) {
+                record = new StringBuilder(line);
+            }
+            record.append('\n').append(next);
+        }
+        return record != null ? record.toString() : line;
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        return fields.get(index).trim();
+    }
+
+    private static Set<Integer> loadTableIds(Connection conn) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM tables")) {
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
+            }
+        }
+        return ids;
+    }
+
+    private static Map<String, Integer> loadClients(Connection conn) throws SQLException {
+        Map<String, Integer> clients = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM clients ORDER BY id")) {
+            while (rs.next()) {
+                clients.putIfAbsent(rs.getString("name"), rs.getInt("id"));
+            }
+        }
+        return clients;
+    }
+
+    private static Map<String, BitSet> loadActiveOccupancy(Connection conn) throws SQLException {
+        Map<String, BitSet> occupancy = new HashMap<>();
+        String sql = "SELECT table_id, date, start_time, duration FROM reservations " +
+                "WHERE status IN ('Подтверждено', 'Активно')";
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                int start = parseTime(rs.getString("start_time"));
+                if (start < 0) {
+                    continue;
+                }
+                String key = rs.getString("date") + "#" + rs.getInt("table_id");
+                occupancy.computeIfAbsent(key, k -> new BitSet(1440))
+                        .set(start, start + Math.max(rs.getInt("duration"), 0));
+            }
+        }
+        return occupancy;
+    }
+
+    private static boolean isValidDate(String date) {
+        if (date == null || date.length() != 10) {
+            return false;
+        }
+        try {
+            LocalDate.parse(date);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static int parseTime(String time) {
+        if (time == null) {
+            return -1;
+        }
+        int colon = time.indexOf(':');
+        if (colon <= 0 || colon != time.length() - 3) {
+            return -1;
+        }
+        int hours = parseInt(time.substring(0, colon));
+        int minutes = parseInt(time.substring(colon + 1));
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return -1;
+        }
+        return hours * 60 + minutes;
+    }
+
+    private static int parseInt(String value) {
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String formatTime(int totalMinutes) {
+        return String.format("%02d:%02d", totalMinutes / 60, totalMinutes % 60);
+    }
+}
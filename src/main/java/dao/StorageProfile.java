@@ -0,0 +1,186 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class StorageProfile {
+
+    public static final String NAME = System.getProperty("restaurant.db.profile", "balanced");
+
+    private static final long MB = 1024L * 1024L;
+
+    private static final long MMAP_BYTES;
+    private static final long CACHE_KB;
+    private static final boolean TEMP_IN_MEMORY;
+    private static final int PAGE_SIZE;
+    private static final int WAL_AUTOCHECKPOINT;
+    private static final int BUSY_TIMEOUT_MS;
+    private static final boolean INCREMENTAL_VACUUM;
+
+    static {
+        long mmapMb;
+        long cacheMb;
+        int pageSize;
+        int autocheckpoint;
+        int busyTimeout;
+        boolean tempInMemory;
+        boolean incrementalVacuum;
+
+        switch (NAME) {
+            case "default":
+                mmapMb = 0;
+                cacheMb = 2;
+                pageSize = 4096;
+                autocheckpoint = 1000;
+                busyTimeout = 3000;
+                tempInMemory = false;
+                incrementalVacuum = false;
+                break;
+            case "large":
+                mmapMb = 1024;
+                cacheMb = 64;
+                pageSize = 8192;
+                autocheckpoint = 4000;
+                busyTimeout = 10000;
+                tempInMemory = true;
+                incrementalVacuum = true;
+                break;
+            default:
+                mmapMb = 256;
+                cacheMb = 16;
+                pageSize = 4096;
+                autocheckpoint = 1000;
+                busyTimeout = 5000;
+                tempInMemory = true;
+                incrementalVacuum = true;
+                break;
+        }
+
+        MMAP_BYTES = Long.getLong("restaurant.db.mmapMb", mmapMb) * MB;
+        CACHE_KB = Long.getLong("restaurant.db.cacheMb", cacheMb) * 1024L;
+        PAGE_SIZE = Integer.getInteger("restaurant.db.pageSize", pageSize);
+        WAL_AUTOCHECKPOINT = Integer.getInteger("restaurant.db.walAutocheckpoint", autocheckpoint);
+        BUSY_TIMEOUT_MS = Integer.getInteger("restaurant.db.busyTimeoutMs", busyTimeout);
+        TEMP_IN_MEMORY = Boolean.parseBoolean(System.getProperty("restaurant.db.tempInMemory",
+                String.valueOf(tempInMemory)));
+        INCREMENTAL_VACUUM = Boolean.parseBoolean(System.getProperty("restaurant.db.incrementalVacuum",
+                String.valueOf(incrementalVacuum)));
+    }
+
+    static void apply(Connection conn) throws Exception {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+            stmt.execute("PRAGMA mmap_size = " + MMAP_BYTES);
+            stmt.execute("PRAGMA cache_size = -" + CACHE_KB);
+            stmt.execute("PRAGMA temp_store = " + (TEMP_IN_MEMORY ? "MEMORY" : "DEFAULT"));
+            stmt.execute("PRAGMA wal_autocheckpoint = " + WAL_AUTOCHECKPOINT);
+        }
+    }
+
+    static void applyLayout(Connection conn) {
+        if (!isValidPageSize()) {
+            return;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            int[] current = currentLayout(stmt);
+            if (current[0] == PAGE_SIZE && current[1] == targetAutoVacuum()) {
+                return;
+            }
+
+            boolean empty;
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master")) {
+                empty = rs.next() && rs.getInt(1) == 0;
+            }
+            if (empty) {
+                rebuild(stmt, current);
+            } else {
+                System.out.println("Структура файла базы (страница " + current[0] + ", auto_vacuum " + current[1] +
+                        ") отличается от профиля " + NAME + " (страница " + PAGE_SIZE + ", auto_vacuum " +
+                        targetAutoVacuum() + "), перестроить: команда rebuild-layout");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static boolean rebuildLayout() {
+        if (!isValidPageSize()) {
+            return false;
+        }
+
+        try (Connection conn = Database.openMaintenanceConnection();
+             Statement stmt = conn.createStatement()) {
+            int[] current = currentLayout(stmt);
+            if (current[0] == PAGE_SIZE && current[1] == targetAutoVacuum()) {
+                System.out.println("Структура файла уже соответствует профилю " + NAME);
+                return true;
+            }
+            return rebuild(stmt, current);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static boolean rebuild(Statement stmt, int[] current) throws Exception {
+        long start = System.currentTimeMillis();
+        try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = DELETE")) {
+            if (!rs.next() || !"delete".equalsIgnoreCase(rs.getString(1))) {
+                System.err.println("База открыта другим процессом, перестройка невозможна");
+                return false;
+            }
+        } catch (SQLException e) {
+            System.err.println("База открыта другим процессом, перестройка невозможна: " + e.getMessage());
+            return false;
+        }
+
+        try {
+            stmt.execute("PRAGMA page_size = " + PAGE_SIZE);
+            stmt.execute("PRAGMA auto_vacuum = " + targetAutoVacuum());
+            stmt.execute("VACUUM");
+        } finally {
+            stmt.execute("PRAGMA journal_mode = WAL");
+        }
+        System.out.println("База перестроена: страница " + current[0] + " -> " + PAGE_SIZE +
+                ", auto_vacuum " + current[1] + " -> " + targetAutoVacuum() +
+                " за " + (System.currentTimeMillis() - start) + " мс");
+        return true;
+    }
+
+    private static int[] currentLayout(Statement stmt) throws SQLException {
+        int[] layout = new int[]{PAGE_SIZE, 0};
+        try (ResultSet rs = stmt.executeQuery("PRAGMA page_size")) {
+            if (rs.next()) {
+                layout[0] = rs.getInt(1);
+            }
+        }
+        try (ResultSet rs = stmt.executeQuery("PRAGMA auto_vacuum")) {
+            if (rs.next()) {
+                layout[1] = rs.getInt(1);
+            }
+        }
+        return layout;
+    }
+
+    private static int targetAutoVacuum() {
+        return INCREMENTAL_VACUUM ? 2 : 0;
+    }
+
+    private static boolean isValidPageSize() {
+        if (PAGE_SIZE < 512 || PAGE_SIZE > 65536 || Integer.bitCount(PAGE_SIZE) != 1) {
+            System.err.println("Недопустимый размер страницы: " + PAGE_SIZE);
+            return false;
+        }
+        return true;
+    }
+
+    public static String describe() {
+        return NAME + " (mmap " + MMAP_BYTES / MB + " МБ, кэш " + CACHE_KB / 1024 + " МБ, страница " + PAGE_SIZE +
+                ", temp_store " + (TEMP_IN_MEMORY ? "MEMORY" : "DEFAULT") +
+                ", wal_autocheckpoint " + WAL_AUTOCHECKPOINT + ", busy_timeout " + BUSY_TIMEOUT_MS + " мс" +
+                ", auto_vacuum " + (INCREMENTAL_VACUUM ? "INCREMENTAL" : "NONE") + ")";
+    }
+}
@@ -0,0 +1,309 @@
+package dao;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SummaryDAO {
+
+    private static final String NO_ZONE = "Без зоны";
+    private static final int REBUILD_WINDOW_DAYS = 31;
+
+    private static final String DAY_SQL = "SELECT r.date, t.zone, r.status, r.guests, r.start_time, r.duration, " +
+            "r.combo_id IS NOT NULL AND r.combo_id != r.id AS combo_piece " +
+            "FROM reservations_history r " +
+            "LEFT JOIN tables t ON r.table_id = t.id ";
+
+    static void refreshDay(Connection conn, String date) throws SQLException {
+        if (date == null || date.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM daily_summary WHERE date = ?")) {
+            delete.setString(1, date);
+            delete.executeUpdate();
+        }
+
+        try (PreparedStatement select = conn.prepareStatement(DAY_SQL + "WHERE r.date = ?");
+             PreparedStatement insert = prepareInsert(conn)) {
+            select.setString(1, date);
+            aggregate(select.executeQuery(), insert);
+            insert.executeBatch();
+        }
+    }
+
+    public static long rebuild() {
+        return rebuild("", "9999-12-31");
+    }
+
+    public static long rebuild(String fromDate, String toDate) {
+        String[] range = new String[2];
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT MIN(date), MAX(date) FROM (" +
+                             "SELECT date FROM reservations_history WHERE date BETWEEN ? AND ? " +
+                             "UNION ALL SELECT date FROM daily_summary WHERE date BETWEEN ? AND ?)")) {
+            ps.setString(1, fromDate);
+            ps.setString(2, toDate);
+            ps.setString(3, fromDate);
+            ps.setString(4, toDate);
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+                range[0] = rs.getString(1);
+                range[1] = rs.getString(2);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+        if (range[0] == null) {
+            return 0;
+        }
+
+        long days = 0;
+        try {
+            LocalDate last = LocalDate.parse(range[1]);
+            for (LocalDate from = LocalDate.parse(range[0]); !from.isAfter(last); from = from.plusDays(REBUILD_WINDOW_DAYS)) {
+                String windowFrom = from.toString();
+                String windowTo = from.plusDays(REBUILD_WINDOW_DAYS - 1).toString();
+                days += WriteQueue.execute(conn -> {
+                    try (PreparedStatement delete = conn.prepareStatement(
+                            "DELETE FROM daily_summary WHERE date BETWEEN ? AND ?")) {
+                        delete.setString(1, windowFrom);
+                        delete.setString(2, windowTo);
+                        delete.executeUpdate();
+                    }
+
+                    try (PreparedStatement select = conn.prepareStatement(
+                            DAY_SQL + "WHERE r.date BETWEEN ? AND ? ORDER BY r.date");
+                         PreparedStatement insert = prepareInsert(conn)) {
+                        select.setString(1, windowFrom);
+                        select.setString(2, windowTo);
+                        long windowDays = aggregate(select.executeQuery(), insert);
+                        insert.executeBatch();
+                        return windowDays;
+                    }
+                });
+            }
+            return days;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    public static void rebuildIfEmpty() {
+        try (Connection conn = Database.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT (SELECT COUNT(*) FROM daily_summary) = 0 " +
+                             "AND EXISTS (SELECT 1 FROM reservations_history)")) {
+            if (!rs.next() || !rs.getBoolean(1)) {
+                return;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        rebuild();
+    }
+
+    public static Map<String, Object> getTotals(String fromDate, String toDate) {
+        Map<String, Object> totals = new HashMap<>();
+        String sql = "SELECT COUNT(DISTINCT date) AS days, " +
+                "IFNULL(SUM(covers), 0) AS covers, " +
+                "IFNULL(SUM(bookings), 0) AS bookings, " +
+                "IFNULL(SUM(completed), 0) AS completed, " +
+                "IFNULL(SUM(cancelled), 0) AS cancelled, " +
+                "IFNULL(SUM(no_shows), 0) AS no_shows, " +
+                "IFNULL(SUM(seated_minutes), 0) AS seated_minutes, " +
+                "IFNULL(MAX(peak_tables), 0) AS peak_tables " +
+                "FROM daily_summary WHERE date BETWEEN ? AND ?";
+
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, fromDate);
+            ps.setString(2, toDate);
+            ResultSet rs = ps.executeQuery();
+
+            if (rs.next()) {
+                totals.put("days", rs.getInt("days"));
+                totals.put("covers", rs.getLong("covers"));
+                totals.put("bookings", rs.getLong("bookings"));
+                totals.put("completed", rs.getLong("completed"));
+                totals.put("cancelled", rs.getLong("cancelled"));
+                totals.put("noShows", rs.getLong("no_shows"));
+                totals.put("seatedMinutes", rs.getLong("seated_minutes"));
+                totals.put("peakTables", rs.getInt("peak_tables"));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return totals;
+    }
+
+    public static List<Map<String, Object>> getDailySummary(String fromDate, String toDate) {
+        List<Map<String, Object>> days = new ArrayList<>();
+        String sql = "SELECT date, zone, covers, bookings, confirmed, active, completed, cancelled, no_shows, " +
+                "seated_minutes, peak_tables " +
+                "FROM daily_summary WHERE date BETWEEN ? AND ? ORDER BY date, zone";
+
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, fromDate);
+            ps.setString(2, toDate);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("date", rs.getString("date"));
+                row.put("zone", rs.getString("zone"));
+                row.put("covers", rs.getInt("covers"));
+                row.put("bookings", rs.getInt("bookings"));
+                row.put("confirmed", rs.getInt("confirmed"));
+                row.put("active", rs.getInt("active"));
+                row.put("completed", rs.getInt("completed"));
+                row.put("cancelled", rs.getInt("cancelled"));
+                row.put("noShows", rs.getInt("no_shows"));
+                row.put("seatedMinutes", rs.getInt("seated_minutes"));
+                row.put("peakTables", rs.getInt("peak_tables"));
+                days.add(row);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return days;
+    }
+
+    private static PreparedStatement prepareInsert(Connection conn) throws SQLException {
+        return conn.prepareStatement("INSERT INTO daily_summary (date, zone, covers, bookings, confirmed, active, " +
+                "completed, cancelled, no_shows, seated_minutes, peak_tables) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+    }
+
+    private static long aggregate(ResultSet rs, PreparedStatement insert) throws SQLException {
+        Map<String, ZoneDay> zones = new LinkedHashMap<>();
+        String currentDate = null;
+        long days = 0;
+
+        while (rs.next()) {
+            String date = rs.getString("date");
+            if (!date.equals(currentDate)) {
+                if (currentDate != null) {
+                    flush(currentDate, zones, insert);
+                    days++;
+                }
+                currentDate = date;
+                zones.clear();
+            }
+
+            String zone = rs.getString("zone");
+            ZoneDay day = zones.computeIfAbsent(zone != null ? zone : NO_ZONE, z -> new ZoneDay());
+            day.add(rs.getString("status"), rs.getInt("guests"),
+                    minutesOf(rs.getString("start_time")), rs.getInt("duration"), rs.getBoolean("combo_piece"));
+        }
+
+        if (currentDate != null) {
+            flush(currentDate, zones, insert);
+            days++;
+        }
+        return days;
+    }
+
+    private static void flush(String date, Map<String, ZoneDay> zones, PreparedStatement insert) throws SQLException {
+        for (Map.Entry<String, ZoneDay> entry : zones.entrySet()) {
+            ZoneDay day = entry.getValue();
+            insert.setString(1, date);
+            insert.setString(2, entry.getKey());
+            insert.setInt(3, day.covers);
+            insert.setInt(4, day.bookings);
+            insert.setInt(5, day.confirmed);
+            insert.setInt(6, day.active);
+            insert.setInt(7, day.completed);
+            insert.setInt(8, day.cancelled);
+            insert.setInt(9, day.noShows);
+            insert.setInt(10, day.seatedMinutes);
+            insert.setInt(11, day.peakTables());
+            insert.addBatch();
+        }
+    }
+
+    private static int minutesOf(String time) {
+        try {
+            String[] parts = time.split(":");
+            return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static class ZoneDay {
+        int covers;
+        int bookings;
+        int confirmed;
+        int active;
+        int completed;
+        int cancelled;
+        int noShows;
+        int seatedMinutes;
+        int[] events = new int[16];
+        int eventCount;
+
+        void add(String status, int guests, int start, int duration, boolean comboPiece) {
+            if ("Отменено".equals(status) || "Неявка".equals(status)) {
+                if (!comboPiece) {
+                    bookings++;
+                    if ("Отменено".equals(status)) {
+                        cancelled++;
+                    } else {
+                        noShows++;
+                    }
+                }
+                return;
+            }
+
+            if (!comboPiece) {
+                bookings++;
+                if ("Активно".equals(status)) {
+                    active++;
+                } else if ("Завершено".equals(status)) {
+                    completed++;
+                } else {
+                    confirmed++;
+                }
+            }
+
+            covers += guests;
+            seatedMinutes += duration;
+
+            if (start >= 0 && duration > 0) {
+                if (eventCount + 2 > events.length) {
+                    events = Arrays.copyOf(events, events.length * 2);
+                }
+                events[eventCount++] = (start + duration) * 2;
+                events[eventCount++] = start * 2 + 1;
+            }
+        }
+
+        int peakTables() {
+            Arrays.sort(events, 0, eventCount);
+            int current = 0;
+            int peak = 0;
+            for (int i = 0; i < eventCount; i++) {
+                if ((events[i] & 1) == 1) {
+                    current++;
+                    peak = Math.max(peak, current);
+                } else {
+                    current--;
+                }
+            }
+            return peak;
+        }
+    }
+}
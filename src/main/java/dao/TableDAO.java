@@ -6,23 +6,63 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
 public class TableDAO {
+
+    private static final List<IntConsumer> tableReleaseListeners = new CopyOnWriteArrayList<>();
+    private static final List<BiConsumer<Integer, String>> tableStatusListeners = new CopyOnWriteArrayList<>();
+
+    public static void addTableReleaseListener(IntConsumer listener) {
+        tableReleaseListeners.add(listener);
+    }
+
+    public static void addTableStatusListener(BiConsumer<Integer, String> listener) {
+        tableStatusListeners.add(listener);
+    }
+
+    private static void fireTableStatusChanged(int tableId, String status) {
+        for (BiConsumer<Integer, String> listener : tableStatusListeners) {
+            try {
+                listener.accept(tableId, status);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    static void fireTableReleased(int tableId) {
+        for (IntConsumer listener : tableReleaseListeners) {
+            try {
+                listener.accept(tableId);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public static List<TableEntity> getAllTables() {
         List<TableEntity> list = new ArrayList<>();
         String sql = "SELECT * FROM tables ORDER BY zone, capacity";
 
-        try (Connection conn = Database.getConnection();
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                list.add(new TableEntity(
+                TableEntity table = new TableEntity(
                         rs.getInt("id"),
                         rs.getInt("capacity"),
                         rs.getString("zone"),
                         rs.getString("status")
-                ));
+                );
+                if (rs.getObject("pos_x") != null && rs.getObject("pos_y") != null) {
+                    table.setPosition(rs.getDouble("pos_x"), rs.getDouble("pos_y"));
+                }
+                list.add(table);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -34,7 +74,7 @@ public class TableDAO {
         List<String> zones = new ArrayList<>();
         String sql = "SELECT DISTINCT zone FROM tables WHERE zone IS NOT NULL AND zone != '' ORDER BY zone";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -52,13 +92,15 @@ public class TableDAO {
 
         String sql = "INSERT INTO tables (capacity, zone, status) VALUES (?, ?, ?)";
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, capacity);
-            ps.setString(2, zone);
-            ps.setString(3, status);
-            return ps.executeUpdate() > 0;
+        try {
+            return WriteQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, capacity);
+                    ps.setString(2, zone);
+                    ps.setString(3, status);
+                    return ps.executeUpdate() > 0;
+                }
+            });
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -76,7 +118,8 @@ public class TableDAO {
                 "SUM(CASE WHEN status = 'На ремонте' THEN 1 ELSE 0 END) as maintenance " +
                 "FROM tables";
 
-        try (Connection conn = Database.getConnection();
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -107,14 +150,17 @@ public class TableDAO {
     public static boolean updateTable(int id, int capacity, String zone, String status) {
         String sql = "UPDATE tables SET capacity = ?, zone = ?, status = ? WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, capacity);
-            ps.setString(2, zone);
-            ps.setString(3, status);
-            ps.setInt(4, id);
-            return ps.executeUpdate() > 0;
+        TableStatusBuffer.flush();
+        try {
+            return WriteQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, capacity);
+                    ps.setString(2, zone);
+                    ps.setString(3, status);
+                    ps.setInt(4, id);
+                    return ps.executeUpdate() > 0;
+                }
+            });
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -129,12 +175,90 @@ public class TableDAO {
 
         String sql = "DELETE FROM tables WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try {
+            return WriteQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, tableId);
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                try (PreparedStatement adjacency = conn.prepareStatement(
+                        "DELETE FROM table_adjacency WHERE table_a = ? OR table_b = ?")) {
+                    adjacency.setInt(1, tableId);
+                    adjacency.setInt(2, tableId);
+                    adjacency.executeUpdate();
+                }
+                return true;
+            });
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public static List<int[]> getAdjacency() {
+        List<int[]> pairs = new ArrayList<>();
+
+        try (Connection conn = Database.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT table_a, table_b FROM table_adjacency")) {
+
+            while (rs.next()) {
+                pairs.add(new int[]{rs.getInt("table_a"), rs.getInt("table_b")});
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return pairs;
+    }
+
+    public static List<Integer> getAdjacentTableIds(int tableId) {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT table_b AS id FROM table_adjacency WHERE table_a = ? " +
+                "UNION SELECT table_a AS id FROM table_adjacency WHERE table_b = ? ORDER BY id";
+
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, tableId);
-            return ps.executeUpdate() > 0;
+            ps.setInt(2, tableId);
+            ResultSet rs = ps.executeQuery();
 
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return ids;
+    }
+
+    public static boolean setAdjacentTables(int tableId, List<Integer> adjacentIds) {
+        try {
+            return WriteQueue.execute(conn -> {
+                try (PreparedStatement delete = conn.prepareStatement(
+                        "DELETE FROM table_adjacency WHERE table_a = ? OR table_b = ?");
+                     PreparedStatement insert = conn.prepareStatement(
+                             "INSERT OR IGNORE INTO table_adjacency (table_a, table_b) VALUES (?, ?)")) {
+
+                    delete.setInt(1, tableId);
+                    delete.setInt(2, tableId);
+                    delete.executeUpdate();
+
+                    for (int adjacentId : adjacentIds) {
+                        if (adjacentId == tableId) {
+                            continue;
+                        }
+                        insert.setInt(1, Math.min(tableId, adjacentId));
+                        insert.setInt(2, Math.max(tableId, adjacentId));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                    return true;
+                }
+            });
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -145,7 +269,7 @@ public class TableDAO {
         String sql = "SELECT COUNT(*) as count FROM reservations " +
                 "WHERE table_id = ? AND status != 'Отменено' AND date >= date('now')";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, tableId);
@@ -161,19 +285,21 @@ public class TableDAO {
     }
 
     public static boolean addZone(String zoneName) {
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS zones (" +
-                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                    "name TEXT UNIQUE NOT NULL" +
-                    ")");
+        try {
+            return WriteQueue.execute(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TABLE IF NOT EXISTS zones (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "name TEXT UNIQUE NOT NULL" +
+                            ")");
+                }
 
-            String sql = "INSERT OR IGNORE INTO zones (name) VALUES (?)";
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, zoneName);
-                return ps.executeUpdate() > 0;
-            }
+                String sql = "INSERT OR IGNORE INTO zones (name) VALUES (?)";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setString(1, zoneName);
+                    return ps.executeUpdate() > 0;
+                }
+            });
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -181,22 +307,23 @@ public class TableDAO {
         }
     }
     public static boolean deleteZone(String zoneName) {
-        try (Connection conn = Database.getConnection()) {
-
-            String checkSql = "SELECT COUNT(*) as count FROM tables WHERE zone = ?";
-            try (PreparedStatement ps = conn.prepareStatement(checkSql)) {
-                ps.setString(1, zoneName);
-                ResultSet rs = ps.executeQuery();
-                if (rs.next() && rs.getInt("count") > 0) {
-                    return false;
+        try {
+            return WriteQueue.execute(conn -> {
+                String checkSql = "SELECT COUNT(*) as count FROM tables WHERE zone = ?";
+                try (PreparedStatement ps = conn.prepareStatement(checkSql)) {
+                    ps.setString(1, zoneName);
+                    ResultSet rs = ps.executeQuery();
+                    if (rs.next() && rs.getInt("count") > 0) {
+                        return false;
+                    }
                 }
-            }
 
-            String deleteSql = "DELETE FROM zones WHERE name = ?";
-            try (PreparedStatement ps = conn.prepareStatement(deleteSql)) {
-                ps.setString(1, zoneName);
-                return ps.executeUpdate() > 0;
-            }
+                String deleteSql = "DELETE FROM zones WHERE name = ?";
+                try (PreparedStatement ps = conn.prepareStatement(deleteSql)) {
+                    ps.setString(1, zoneName);
+                    return ps.executeUpdate() > 0;
+                }
+            });
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -207,7 +334,7 @@ public class TableDAO {
     public static boolean hasTablesInZone(String zoneName) {
         String sql = "SELECT COUNT(*) as count FROM tables WHERE zone = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, zoneName);
@@ -223,24 +350,41 @@ public class TableDAO {
     }
 
     public static void updateTableStatus(int tableId, String status) {
-        String sql = "UPDATE tables SET status = ? WHERE id = ?";
+        TableStatusBuffer.put(tableId, status);
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        fireTableStatusChanged(tableId, status);
+        if ("Свободен".equals(status)) {
+            fireTableReleased(tableId);
+        }
+    }
 
-            ps.setString(1, status);
-            ps.setInt(2, tableId);
-            ps.executeUpdate();
+    public static boolean updateTablePositions(Map<Integer, double[]> positions) {
+        String sql = "UPDATE tables SET pos_x = ?, pos_y = ? WHERE id = ?";
+
+        try {
+            return WriteQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (Map.Entry<Integer, double[]> entry : positions.entrySet()) {
+                        ps.setDouble(1, entry.getValue()[0]);
+                        ps.setDouble(2, entry.getValue()[1]);
+                        ps.setInt(3, entry.getKey());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    return true;
+                }
+            });
 
         } catch (Exception e) {
             e.printStackTrace();
+            return false;
         }
     }
 
     public static String getTableInfo(int tableId) {
         String sql = "SELECT id, zone, capacity FROM tables WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, tableId);
@@ -259,7 +403,7 @@ public class TableDAO {
     public static List<String> getZonesFromZonesTable() {
         List<String> zones = new ArrayList<>();
 
-        try (Connection conn = Database.getConnection();
+        try (Connection conn = Database.getReadConnection();
              Statement stmt = conn.createStatement()) {
 
             ResultSet tables = conn.getMetaData().getTables(null, null, "zones", null);
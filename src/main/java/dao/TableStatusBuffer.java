@@ -0,0 +1,96 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TableStatusBuffer {
+
+    private static final int FLUSH_DELAY_MS = Integer.getInteger("restaurant.tableStatus.flushDelayMs", 50);
+
+    private static final Map<Integer, String> pending = new LinkedHashMap<>();
+    private static boolean flushScheduled;
+    private static int flushesInFlight;
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "table-status-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(TableStatusBuffer::flush, "table-status-flush-on-exit"));
+    }
+
+    static void put(int tableId, String status) {
+        synchronized (pending) {
+            pending.put(tableId, status);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        if (FLUSH_DELAY_MS <= 0) {
+            flush();
+        } else {
+            flusher.schedule(TableStatusBuffer::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static void flush() {
+        synchronized (pending) {
+            flushScheduled = false;
+            if (pending.isEmpty() && flushesInFlight == 0) {
+                return;
+            }
+            flushesInFlight++;
+        }
+
+        try {
+            WriteQueue.execute(conn -> {
+                Map<Integer, String> batch;
+                synchronized (pending) {
+                    if (pending.isEmpty()) {
+                        return null;
+                    }
+                    batch = new LinkedHashMap<>(pending);
+                    pending.clear();
+                }
+
+                try {
+                    write(conn, batch);
+                } catch (Exception e) {
+                    synchronized (pending) {
+                        for (Map.Entry<Integer, String> entry : batch.entrySet()) {
+                            pending.putIfAbsent(entry.getKey(), entry.getValue());
+                        }
+                    }
+                    throw e;
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            synchronized (pending) {
+                flushesInFlight--;
+            }
+        }
+    }
+
+    private static void write(Connection conn, Map<Integer, String> batch) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE tables SET status = ? WHERE id = ?")) {
+            for (Map.Entry<Integer, String> entry : batch.entrySet()) {
+                ps.setString(1, entry.getValue());
+                ps.setInt(2, entry.getKey());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
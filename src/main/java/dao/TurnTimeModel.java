@@ -0,0 +1,354 @@
+package dao;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TurnTimeModel {
+
+    public static final double OVERBOOKING_MARGIN =
+            Double.parseDouble(System.getProperty("restaurant.overbooking.margin", "0"));
+
+    private static final int TRAINING_HOUR = Integer.getInteger("restaurant.model.trainingHour", 4);
+    private static final double PRIOR_WEIGHT = 10;
+    private static final int MIN_TURNS_FOR_SPREAD = 10;
+
+    private static final String NO_ZONE = "Без зоны";
+    private static final String ANY = "*";
+
+    private static final String HISTORY_SQL = "SELECT h.date, h.start_time, h.duration, h.guests, h.status, " +
+            "t.zone, h.seated_at, h.completed_at " +
+            "FROM (SELECT table_id, date, start_time, duration, guests, status, seated_at, completed_at " +
+            "      FROM reservations WHERE combo_id IS NULL OR combo_id = id " +
+            "      UNION ALL " +
+            "      SELECT table_id, date, start_time, duration, guests, status, seated_at, completed_at " +
+            "      FROM reservations_archive WHERE combo_id IS NULL OR combo_id = id) h " +
+            "LEFT JOIN tables t ON h.table_id = t.id " +
+            "WHERE h.date > ? AND h.date <= ? AND h.status IN ('Завершено', 'Неявка')";
+
+    private static final AtomicBoolean training = new AtomicBoolean();
+    private static final Object LOAD_LOCK = new Object();
+
+    private static volatile Map<String, Stats> model;
+    private static ScheduledExecutorService scheduler;
+
+    private static final List<Runnable> modelListeners = new CopyOnWriteArrayList<>();
+
+    public static void addModelListener(Runnable listener) {
+        modelListeners.add(listener);
+    }
+
+    public static synchronized void startNightlyTraining() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "turn-model-trainer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextRun = now.toLocalDate().atTime(TRAINING_HOUR, 0);
+        if (!nextRun.isAfter(now)) {
+            nextRun = nextRun.plusDays(1);
+        }
+
+        scheduler.execute(TurnTimeModel::train);
+        scheduler.scheduleAtFixedRate(TurnTimeModel::train, Duration.between(now, nextRun).toMinutes(),
+                TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    public static synchronized void stopNightlyTraining() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public static long train() {
+        if (!training.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            return trainNewDays();
+        } finally {
+            training.set(false);
+        }
+    }
+
+    private static long trainNewDays() {
+        String through = LocalDate.now().minusDays(1).toString();
+        Map<String, Stats> stats = loadStats();
+
+        Map<String, Stats> changed = new HashMap<>();
+        long rows = 0;
+        try (Connection conn = Database.getReadConnection()) {
+            String trainedThrough = "";
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT trained_through FROM turn_model_state WHERE id = 1")) {
+                if (rs.next()) {
+                    trainedThrough = rs.getString("trained_through");
+                }
+            }
+            if (trainedThrough.compareTo(through) >= 0) {
+                return 0;
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(HISTORY_SQL)) {
+                ps.setString(1, trainedThrough);
+                ps.setString(2, through);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    String key = key(rs.getString("zone"), rs.getInt("guests"),
+                            rs.getString("date"), rs.getString("start_time"));
+                    Stats entry = changed.computeIfAbsent(key,
+                            k -> stats.containsKey(k) ? stats.get(k).copy() : new Stats());
+
+                    if ("Неявка".equals(rs.getString("status"))) {
+                        entry.addOutcome(true);
+                    } else {
+                        entry.addOutcome(false);
+                        double ratio = turnRatio(rs.getString("date"), rs.getString("start_time"),
+                                rs.getInt("duration"), rs.getString("seated_at"), rs.getString("completed_at"));
+                        if (ratio > 0) {
+                            entry.addTurn(ratio);
+                        }
+                    }
+                    rows++;
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+
+        try {
+            WriteQueue.execute(conn -> {
+                try (PreparedStatement upsert = conn.prepareStatement(
+                        "INSERT OR REPLACE INTO turn_model_stats (zone, guests_bucket, day_of_week, hour_bucket, " +
+                                "outcomes, no_shows, turns, ratio_mean, ratio_m2) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                     PreparedStatement state = conn.prepareStatement(
+                             "INSERT OR REPLACE INTO turn_model_state (id, trained_through) VALUES (1, ?)")) {
+                    for (Map.Entry<String, Stats> entry : changed.entrySet()) {
+                        String[] parts = entry.getKey().split("\\|");
+                        Stats s = entry.getValue();
+                        upsert.setString(1, parts[0]);
+                        upsert.setInt(2, Integer.parseInt(parts[1]));
+                        upsert.setInt(3, Integer.parseInt(parts[2]));
+                        upsert.setInt(4, Integer.parseInt(parts[3]));
+                        upsert.setLong(5, s.outcomes);
+                        upsert.setLong(6, s.noShows);
+                        upsert.setLong(7, s.turns);
+                        upsert.setDouble(8, s.ratioMean);
+                        upsert.setDouble(9, s.ratioM2);
+                        upsert.addBatch();
+                    }
+                    upsert.executeBatch();
+
+                    state.setString(1, through);
+                    state.executeUpdate();
+                }
+                return null;
+            });
+
+            stats.putAll(changed);
+            Map<String, Stats> trained = withRollups(stats);
+            synchronized (LOAD_LOCK) {
+                model = trained;
+            }
+            for (Runnable listener : modelListeners) {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            return rows;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    public static double noShowProbability(int guests, String date, String startTime, String zone) {
+        Stats[] levels = levelsFor(guests, date, startTime, zone);
+        double p = 0;
+        for (int i = levels.length - 1; i >= 0; i--) {
+            Stats s = levels[i];
+            if (s != null) {
+                p = (s.noShows + PRIOR_WEIGHT * p) / (s.outcomes + PRIOR_WEIGHT);
+            }
+        }
+        return p;
+    }
+
+    public static int predictTurnMinutes(int guests, String date, String startTime, String zone, int duration) {
+        Stats[] levels = levelsFor(guests, date, startTime, zone);
+        double mean = 1;
+        double spread = 0;
+        for (int i = levels.length - 1; i >= 0; i--) {
+            Stats s = levels[i];
+            if (s == null) {
+                continue;
+            }
+            mean = (s.turns * s.ratioMean + PRIOR_WEIGHT * mean) / (s.turns + PRIOR_WEIGHT);
+            if (s.turns >= MIN_TURNS_FOR_SPREAD) {
+                spread = Math.sqrt(s.ratioM2 / (s.turns - 1));
+            }
+        }
+        return (int) Math.ceil(duration * Math.min(1, mean + spread));
+    }
+
+    public static int blockingMinutes(int guests, String date, String startTime, String zone,
+                                      int duration, String status) {
+        if (OVERBOOKING_MARGIN <= 0) {
+            return duration;
+        }
+        if ("Подтверждено".equals(status)
+                && 1 - noShowProbability(guests, date, startTime, zone) <= OVERBOOKING_MARGIN) {
+            return 0;
+        }
+        return predictTurnMinutes(guests, date, startTime, zone, duration);
+    }
+
+    private static Stats[] levelsFor(int guests, String date, String startTime, String zone) {
+        Map<String, Stats> current = model;
+        if (current == null) {
+            synchronized (LOAD_LOCK) {
+                if (model == null) {
+                    model = withRollups(loadStats());
+                }
+                current = model;
+            }
+        }
+
+        String[] parts = keyParts(zone, guests, date, startTime);
+        return new Stats[]{
+                current.get(parts[0] + "|" + parts[1] + "|" + parts[2] + "|" + parts[3]),
+                current.get(ANY + "|" + parts[1] + "|" + parts[2] + "|" + parts[3]),
+                current.get(ANY + "|" + parts[1] + "|" + ANY + "|" + ANY),
+                current.get(ANY + "|" + ANY + "|" + ANY + "|" + ANY)
+        };
+    }
+
+    private static Map<String, Stats> loadStats() {
+        Map<String, Stats> stats = new HashMap<>();
+        try (Connection conn = Database.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM turn_model_stats")) {
+            while (rs.next()) {
+                Stats s = new Stats();
+                s.outcomes = rs.getLong("outcomes");
+                s.noShows = rs.getLong("no_shows");
+                s.turns = rs.getLong("turns");
+                s.ratioMean = rs.getDouble("ratio_mean");
+                s.ratioM2 = rs.getDouble("ratio_m2");
+                stats.put(rs.getString("zone") + "|" + rs.getInt("guests_bucket") + "|" +
+                        rs.getInt("day_of_week") + "|" + rs.getInt("hour_bucket"), s);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return stats;
+    }
+
+    private static Map<String, Stats> withRollups(Map<String, Stats> stats) {
+        Map<String, Stats> result = new HashMap<>(stats);
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            String[] parts = entry.getKey().split("\\|");
+            result.computeIfAbsent(ANY + "|" + parts[1] + "|" + parts[2] + "|" + parts[3], k -> new Stats())
+                    .merge(entry.getValue());
+            result.computeIfAbsent(ANY + "|" + parts[1] + "|" + ANY + "|" + ANY, k -> new Stats())
+                    .merge(entry.getValue());
+            result.computeIfAbsent(ANY + "|" + ANY + "|" + ANY + "|" + ANY, k -> new Stats())
+                    .merge(entry.getValue());
+        }
+        return result;
+    }
+
+    private static String key(String zone, int guests, String date, String startTime) {
+        return String.join("|", keyParts(zone, guests, date, startTime));
+    }
+
+    private static String[] keyParts(String zone, int guests, String date, String startTime) {
+        int guestsBucket = guests <= 2 ? 0 : guests <= 4 ? 1 : guests <= 6 ? 2 : 3;
+        int dayOfWeek = 0;
+        int hourBucket = 0;
+        try {
+            dayOfWeek = LocalDate.parse(date).getDayOfWeek().getValue();
+            hourBucket = Integer.parseInt(startTime.substring(0, startTime.indexOf(':'))) / 3;
+        } catch (Exception ignored) {
+        }
+        return new String[]{zone == null ? NO_ZONE : zone, String.valueOf(guestsBucket),
+                String.valueOf(dayOfWeek), String.valueOf(hourBucket)};
+    }
+
+    private static double turnRatio(String date, String startTime, int duration,
+                                    String seatedAt, String completedAt) {
+        if (completedAt == null || duration <= 0) {
+            return -1;
+        }
+        try {
+            LocalDateTime seated = seatedAt != null
+                    ? LocalDateTime.parse(seatedAt)
+                    : LocalDate.parse(date).atTime(LocalTime.parse(startTime));
+            long minutes = Duration.between(seated, LocalDateTime.parse(completedAt)).toMinutes();
+            return minutes > 0 ? Math.min(minutes / (double) duration, 3) : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static class Stats {
+        long outcomes;
+        long noShows;
+        long turns;
+        double ratioMean;
+        double ratioM2;
+
+        void addOutcome(boolean noShow) {
+            outcomes++;
+            if (noShow) {
+                noShows++;
+            }
+        }
+
+        void addTurn(double ratio) {
+            turns++;
+            double delta = ratio - ratioMean;
+            ratioMean += delta / turns;
+            ratioM2 += delta * (ratio - ratioMean);
+        }
+
+        void merge(Stats other) {
+            long total = turns + other.turns;
+            if (total > 0) {
+                double delta = other.ratioMean - ratioMean;
+                ratioMean += delta * other.turns / total;
+                ratioM2 += other.ratioM2 + delta * delta * turns * other.turns / total;
+            }
+            turns = total;
+            outcomes += other.outcomes;
+            noShows += other.noShows;
+        }
+
+        Stats copy() {
+            Stats s = new Stats();
+            s.merge(this);
+            return s;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class WriteQueue {
+
+    public interface Command<T> {
+        T run(Connection conn) throws Exception;
+    }
+
+    private static final int CAPACITY = Integer.getInteger("restaurant.db.writeQueue", 256);
+    private static final int MAX_GROUP = Integer.getInteger("restaurant.db.groupCommit", 32);
+    private static final long OFFER_WAIT_MS = Long.getLong("restaurant.db.writeWaitMs", 5000);
+
+    private static final BlockingQueue<Pending<?>> queue = new ArrayBlockingQueue<>(CAPACITY);
+
+    static {
+        Thread writer = new Thread(WriteQueue::runLoop, "db-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static <T> CompletableFuture<T> submit(Command<T> command) {
+        Pending<T> pending = new Pending<>(command);
+
+        if (Database.isWriterHeldByCurrentThread()) {
+            runInline(pending);
+            return pending.future;
+        }
+
+        try {
+            if (!queue.offer(pending, OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                pending.future.completeExceptionally(
+                        new SQLException("Очередь записи переполнена: " + queue.size() + " команд"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    public static <T> T execute(Command<T> command) throws Exception {
+        try {
+            return submit(command).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    public static int getQueueLength() {
+        return queue.size();
+    }
+
+    private static void runInline(Pending<?> pending) {
+        try (Connection conn = Database.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("Нет соединения для записи");
+            }
+            if (!conn.getAutoCommit()) {
+                pending.runIn(conn);
+            } else {
+                conn.setAutoCommit(false);
+                try {
+                    pending.runIn(conn);
+                    conn.commit();
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+            pending.finish();
+        } catch (Exception e) {
+            pending.fail(e);
+        }
+    }
+
+    private static void runLoop() {
+        List<Pending<?>> group = new ArrayList<>();
+        while (true) {
+            try {
+                group.add(queue.take());
+                queue.drainTo(group, MAX_GROUP - 1);
+                runGroup(group);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable t) {
+                for (Pending<?> pending : group) {
+                    pending.fail(t);
+                }
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private static void runGroup(List<Pending<?>> group) {
+        try (Connection conn = Database.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("Нет соединения для записи");
+            }
+            conn.setAutoCommit(false);
+            try {
+                for (Pending<?> pending : group) {
+                    pending.runIn(conn);
+                }
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (Exception e) {
+            for (Pending<?> pending : group) {
+                pending.fail(e);
+            }
+            return;
+        }
+        for (Pending<?> pending : group) {
+            pending.finish();
+        }
+    }
+
+    private static class Pending<T> {
+        final Command<T> command;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        Throwable failure;
+
+        Pending(Command<T> command) {
+            this.command = command;
+        }
+
+        void runIn(Connection conn) throws SQLException {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                result = command.run(conn);
+                conn.releaseSavepoint(savepoint);
+            } catch (Throwable t) {
+                failure = t;
+                conn.rollback(savepoint);
+                conn.releaseSavepoint(savepoint);
+            }
+        }
+
+        void finish() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+
+        void fail(Throwable t) {
+            future.completeExceptionally(failure != null ? failure : t);
+        }
+    }
+}
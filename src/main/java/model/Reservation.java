@@ -2,6 +2,8 @@ package model;
 
 import javafx.beans.property.*;
 
+import java.util.Objects;
+
 public class Reservation {
     private final IntegerProperty id = new SimpleIntegerProperty();
     private final StringProperty clientName = new SimpleStringProperty();
@@ -12,6 +14,13 @@ public class Reservation {
     private final IntegerProperty guests = new SimpleIntegerProperty();
     private final StringProperty status = new SimpleStringProperty();
     private final StringProperty tableInfo = new SimpleStringProperty();
+    private final IntegerProperty tableId = new SimpleIntegerProperty(-1);
+
+    public Reservation(int id, String clientName, String date, String time, int duration,
+                       int guests, String status, String tableInfo, int tableId) {
+        this(id, clientName, date, time, duration, guests, status, tableInfo);
+        this.tableId.set(tableId);
+    }
 
     public Reservation(int id, String clientName, String date,
                        String time, int duration, int guests, String status, String tableInfo) {
@@ -44,6 +53,36 @@ public class Reservation {
         }
     }
 
+    public boolean copyFrom(Reservation other) {
+        boolean changed = false;
+        changed |= update(clientName, other.getClientName());
+        changed |= update(date, other.getDate());
+        changed |= update(time, other.getTime());
+        changed |= update(endTime, other.getEndTime());
+        changed |= update(duration, other.getDuration());
+        changed |= update(guests, other.getGuests());
+        changed |= update(status, other.getStatus());
+        changed |= update(tableInfo, other.getTableInfo());
+        changed |= update(tableId, other.getTableId());
+        return changed;
+    }
+
+    private static boolean update(StringProperty property, String value) {
+        if (Objects.equals(property.get(), value)) {
+            return false;
+        }
+        property.set(value);
+        return true;
+    }
+
+    private static boolean update(IntegerProperty property, int value) {
+        if (property.get() == value) {
+            return false;
+        }
+        property.set(value);
+        return true;
+    }
+
     public int getId() { return id.get(); }
     public String getClientName() { return clientName.get(); }
     public String getDate() { return date.get(); }
@@ -53,6 +92,7 @@ public class Reservation {
     public int getGuests() { return guests.get(); }
     public String getStatus() { return status.get(); }
     public String getTableInfo() { return tableInfo.get(); }
+    public int getTableId() { return tableId.get(); }
 
     public IntegerProperty idProperty() { return id; }
     public StringProperty clientNameProperty() { return clientName; }
@@ -63,4 +103,5 @@ public class Reservation {
     public IntegerProperty guestsProperty() { return guests; }
     public StringProperty statusProperty() { return status; }
     public StringProperty tableInfoProperty() { return tableInfo; }
+    public IntegerProperty tableIdProperty() { return tableId; }
 }
\ No newline at end of file
@@ -2,12 +2,16 @@ package model;
 
 import javafx.beans.property.*;
 
+import java.util.Objects;
+
 public class TableEntity {
     private final IntegerProperty id = new SimpleIntegerProperty();
     private final IntegerProperty number = new SimpleIntegerProperty(); // Добавить
     private final IntegerProperty capacity = new SimpleIntegerProperty();
     private final StringProperty zone = new SimpleStringProperty();
     private final StringProperty status = new SimpleStringProperty();
+    private final DoubleProperty posX = new SimpleDoubleProperty(Double.NaN);
+    private final DoubleProperty posY = new SimpleDoubleProperty(Double.NaN);
 
     public TableEntity(int id, int capacity, String zone, String status) {
         this.id.set(id);
@@ -20,6 +24,35 @@ public class TableEntity {
     public int getCapacity() { return capacity.get(); }
     public String getZone() { return zone.get(); }
     public String getStatus() { return status.get(); }
+    public double getPosX() { return posX.get(); }
+    public double getPosY() { return posY.get(); }
+    public boolean hasPosition() { return !Double.isNaN(posX.get()) && !Double.isNaN(posY.get()); }
+
+    public boolean copyFrom(TableEntity other) {
+        boolean changed = false;
+        if (capacity.get() != other.getCapacity()) {
+            capacity.set(other.getCapacity());
+            changed = true;
+        }
+        if (!Objects.equals(zone.get(), other.getZone())) {
+            zone.set(other.getZone());
+            changed = true;
+        }
+        if (!Objects.equals(status.get(), other.getStatus())) {
+            status.set(other.getStatus());
+            changed = true;
+        }
+        if (Double.compare(posX.get(), other.getPosX()) != 0 || Double.compare(posY.get(), other.getPosY()) != 0) {
+            setPosition(other.getPosX(), other.getPosY());
+            changed = true;
+        }
+        return changed;
+    }
+
+    public void setPosition(double x, double y) {
+        posX.set(x);
+        posY.set(y);
+    }
 
     public IntegerProperty idProperty() { return id; }
     public IntegerProperty capacityProperty() { return capacity; }
@@ -0,0 +1,40 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+public class WaitingParty {
+    private final int id;
+    private final String clientName;
+    private final int guests;
+    private final int duration;
+    private final LocalDateTime arrivedAt;
+    private final LocalDateTime leavesAt;
+
+    public WaitingParty(int id, String clientName, int guests, int duration, LocalDateTime arrivedAt, int patienceMinutes) {
+        this.id = id;
+        this.clientName = clientName;
+        this.guests = guests;
+        this.duration = duration;
+        this.arrivedAt = arrivedAt;
+        this.leavesAt = arrivedAt.plusMinutes(patienceMinutes);
+    }
+
+    public int getId() { return id; }
+    public String getClientName() { return clientName; }
+    public int getGuests() { return guests; }
+    public int getDuration() { return duration; }
+    public LocalDateTime getArrivedAt() { return arrivedAt; }
+    public LocalDateTime getLeavesAt() { return leavesAt; }
+
+    public boolean isExpired(LocalDateTime now) {
+        return now.isAfter(leavesAt);
+    }
+
+    @Override
+    public String toString() {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("HH:mm");
+        return clientName + ", " + guests + " гост. — ждет с " + arrivedAt.format(format) +
+                " до " + leavesAt.format(format);
+    }
+}
@@ -0,0 +1,181 @@
+package service;
+
+import dao.ReservationDAO;
+import dao.TurnTimeModel;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class CapacityForecast {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int MAX_DURATION_SLOTS = 180 / SLOT_MINUTES;
+
+    private static final int DAYS = Integer.getInteger("restaurant.forecast.days", 14);
+
+    private static LocalDate firstDate;
+    private static int[] bucketCapacities = new int[0];
+    private static short[] remaining = new short[0];
+    private static final BitSet staleDays = new BitSet();
+
+    static {
+        ReservationDAO.addReservationChangeListener(CapacityForecast::onReservationsChanged);
+        TurnTimeModel.addModelListener(CapacityForecast::invalidate);
+    }
+
+    public static synchronized void invalidate() {
+        firstDate = null;
+    }
+
+    public static synchronized int[] remainingBySlot(LocalDate date, String[] timeSlots, int guests, int duration) {
+        int[] counts = new int[timeSlots.length];
+        Arrays.fill(counts, -1);
+
+        int day = prepareDay(date);
+        int bucket = bucketFor(guests);
+        if (day < 0 || bucket < 0) {
+            return counts;
+        }
+
+        int base = offset(day, bucket, durationIndex(duration), 0);
+        for (int i = 0; i < timeSlots.length; i++) {
+            int minutes = OccupancySnapshot.minutesOf(timeSlots[i]);
+            if (minutes >= 0 && minutes % SLOT_MINUTES == 0) {
+                counts[i] = remaining[base + minutes / SLOT_MINUTES];
+            }
+        }
+        return counts;
+    }
+
+    public static synchronized int remaining(LocalDate date, String time, int guests, int duration) {
+        return remainingBySlot(date, new String[]{time}, guests, duration)[0];
+    }
+
+    private static void onReservationsChanged(String date) {
+        synchronized (CapacityForecast.class) {
+            if (firstDate == null) {
+                return;
+            }
+            if (date == null) {
+                staleDays.set(0, DAYS);
+                return;
+            }
+            try {
+                long day = ChronoUnit.DAYS.between(firstDate, LocalDate.parse(date));
+                if (day >= 0 && day < DAYS) {
+                    staleDays.set((int) day);
+                }
+            } catch (Exception e) {
+                staleDays.set(0, DAYS);
+            }
+        }
+    }
+
+    private static int prepareDay(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (firstDate == null || !firstDate.equals(today)) {
+            if (!rebuild(today)) {
+                return -1;
+            }
+        }
+
+        int day = (int) ChronoUnit.DAYS.between(firstDate, date);
+        if (day < 0 || day >= DAYS) {
+            return -1;
+        }
+        if (staleDays.get(day)) {
+            OccupancySnapshot snapshot = OccupancySnapshot.load(date, 1, -1);
+            if (snapshot == null) {
+                return -1;
+            }
+            fillDay(day, snapshot, 0);
+            staleDays.clear(day);
+        }
+        return day;
+    }
+
+    private static boolean rebuild(LocalDate today) {
+        OccupancySnapshot snapshot = OccupancySnapshot.load(today, DAYS, -1);
+        if (snapshot == null) {
+            firstDate = null;
+            return false;
+        }
+
+        bucketCapacities = new int[snapshot.getTableCount()];
+        int buckets = 0;
+        for (int table = 0; table < snapshot.getTableCount(); table++) {
+            int capacity = snapshot.getCapacity(table);
+            if (buckets == 0 || bucketCapacities[buckets - 1] != capacity) {
+                bucketCapacities[buckets++] = capacity;
+            }
+        }
+        bucketCapacities = Arrays.copyOf(bucketCapacities, buckets);
+
+        remaining = new short[DAYS * buckets * MAX_DURATION_SLOTS * SLOTS_PER_DAY];
+        for (int day = 0; day < DAYS; day++) {
+            fillDay(day, snapshot, day);
+        }
+        firstDate = today;
+        staleDays.clear();
+        return true;
+    }
+
+    private static void fillDay(int day, OccupancySnapshot snapshot, int snapshotDay) {
+        int buckets = bucketCapacities.length;
+        Arrays.fill(remaining, offset(day, 0, 0, 0), offset(day + 1, 0, 0, 0), (short) 0);
+
+        int[] freeRun = new int[SLOTS_PER_DAY + 1];
+        for (int table = 0; table < snapshot.getTableCount(); table++) {
+            if (!snapshot.fits(table, 1)) {
+                continue;
+            }
+            int bucket = Arrays.binarySearch(bucketCapacities, snapshot.getCapacity(table));
+            if (bucket < 0) {
+                continue;
+            }
+
+            for (int slot = SLOTS_PER_DAY - 1; slot >= 0; slot--) {
+                freeRun[slot] = snapshot.isFree(snapshotDay, table, slot * SLOT_MINUTES, SLOT_MINUTES)
+                        ? freeRun[slot + 1] + 1 : 0;
+            }
+
+            for (int length = 1; length <= MAX_DURATION_SLOTS; length++) {
+                int base = offset(day, bucket, length - 1, 0);
+                for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                    if (freeRun[slot] >= length) {
+                        remaining[base + slot]++;
+                    }
+                }
+            }
+        }
+
+        for (int bucket = buckets - 2; bucket >= 0; bucket--) {
+            int base = offset(day, bucket, 0, 0);
+            int larger = offset(day, bucket + 1, 0, 0);
+            for (int i = 0; i < MAX_DURATION_SLOTS * SLOTS_PER_DAY; i++) {
+                remaining[base + i] += remaining[larger + i];
+            }
+        }
+    }
+
+    private static int bucketFor(int guests) {
+        for (int bucket = 0; bucket < bucketCapacities.length; bucket++) {
+            if (bucketCapacities[bucket] >= guests) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    private static int durationIndex(int duration) {
+        int slots = (duration + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        return Math.max(1, Math.min(slots, MAX_DURATION_SLOTS)) - 1;
+    }
+
+    private static int offset(int day, int bucket, int durationIndex, int slot) {
+        return ((day * bucketCapacities.length + bucket) * MAX_DURATION_SLOTS + durationIndex) * SLOTS_PER_DAY + slot;
+    }
+}
@@ -0,0 +1,105 @@
+package service;
+
+import dao.ReservationDAO;
+import dao.TurnTimeModel;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MonthAvailability {
+
+    private static final int CACHE_SIZE = 36;
+
+    private static final Map<String, boolean[][]> freeSlotsByMonth = new LinkedHashMap<String, boolean[][]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, boolean[][]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    static {
+        ReservationDAO.addReservationChangeListener(MonthAvailability::onReservationsChanged);
+        TurnTimeModel.addModelListener(MonthAvailability::invalidate);
+    }
+
+    public static synchronized int getFreeSlots(LocalDate date, String[] timeSlots, int guests, int duration) {
+        YearMonth month = YearMonth.from(date);
+        String key = month + "|" + guests + "|" + duration + "|" + timeSlots.length;
+
+        boolean[][] freeSlots = freeSlotsByMonth.get(key);
+        if (freeSlots == null) {
+            freeSlots = compute(month, timeSlots, guests, duration);
+            if (freeSlots == null) {
+                return -1;
+            }
+            freeSlotsByMonth.put(key, freeSlots);
+        }
+
+        int now = date.equals(LocalDate.now()) ? LocalTime.now().toSecondOfDay() / 60 : -1;
+        boolean[] free = freeSlots[date.getDayOfMonth() - 1];
+        int count = 0;
+        for (int i = 0; i < free.length; i++) {
+            if (free[i] && OccupancySnapshot.minutesOf(timeSlots[i]) >= now) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static synchronized void invalidate() {
+        freeSlotsByMonth.clear();
+    }
+
+    private static void onReservationsChanged(String date) {
+        synchronized (MonthAvailability.class) {
+            if (date == null || date.length() < 7) {
+                freeSlotsByMonth.clear();
+                return;
+            }
+            String prefix = date.substring(0, 7) + "|";
+            Iterator<String> keys = freeSlotsByMonth.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().startsWith(prefix)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    private static boolean[][] compute(YearMonth month, String[] timeSlots, int guests, int duration) {
+        OccupancySnapshot snapshot = OccupancySnapshot.load(month.atDay(1), month.lengthOfMonth(), -1);
+        if (snapshot == null) {
+            return null;
+        }
+
+        int[] slots = new int[timeSlots.length];
+        for (int i = 0; i < timeSlots.length; i++) {
+            slots[i] = OccupancySnapshot.minutesOf(timeSlots[i]);
+        }
+
+        int firstFitting = 0;
+        while (firstFitting < snapshot.getTableCount() && snapshot.getCapacity(firstFitting) < guests) {
+            firstFitting++;
+        }
+
+        boolean[][] freeSlots = new boolean[month.lengthOfMonth()][slots.length];
+        for (int day = 0; day < freeSlots.length; day++) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] < 0) {
+                    continue;
+                }
+                for (int table = firstFitting; table < snapshot.getTableCount(); table++) {
+                    if (snapshot.fits(table, guests) && snapshot.isFree(day, table, slots[i], duration)) {
+                        freeSlots[day][i] = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return freeSlots;
+    }
+}
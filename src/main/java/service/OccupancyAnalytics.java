@@ -0,0 +1,302 @@
+package service;
+
+import dao.Database;
+import dao.ReservationDAO;
+import dao.TableStatusBuffer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OccupancyAnalytics {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int OPEN_MINUTE = 10 * 60;
+    public static final int CLOSE_MINUTE = 23 * 60;
+
+    private static final int STATUS_NO_SHOW = 1;
+    private static final int STATUS_CANCELLED = 2;
+    private static final int STATUS_COMPLETED = 3;
+
+    private static final Map<String, long[]> occupiedByZone = new LinkedHashMap<>();
+    private static long[][] occupiedByTable = new long[0][];
+    private static int[] capacityByTable = new int[0];
+
+    private static LocalDate firstDate;
+    private static volatile LocalDate aggregatedThrough;
+    private static volatile boolean stale;
+
+    private static long seatedCount;
+    private static long seatedMinutes;
+    private static long seatedMinutesInOpenHours;
+    private static long seatedGuestMinutes;
+    private static long seatedCapacityMinutes;
+    private static long completedCount;
+    private static long completedMinutes;
+    private static long noShowCount;
+    private static long cancelledCount;
+
+    static {
+        ReservationDAO.addReservationChangeListener(OccupancyAnalytics::onReservationsChanged);
+    }
+
+    public static synchronized void refresh() {
+        if (stale) {
+            invalidate();
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (aggregatedThrough != null && !aggregatedThrough.isBefore(yesterday)) {
+            return;
+        }
+
+        String packed = "SELECT (((((IFNULL(table_id, 0) * 4 + " +
+                "CASE status WHEN 'Неявка' THEN 1 WHEN 'Отменено' THEN 2 WHEN 'Завершено' THEN 3 ELSE 0 END) " +
+                "* 128 + MIN(MAX(guests, 0), 127)) " +
+                "* 1024 + MIN(MAX(duration, 0), 1023)) " +
+                "* 2048 + MIN(CAST(substr(start_time, 1, instr(start_time, ':') - 1) AS INTEGER) * 60 + " +
+                "CAST(substr(start_time, instr(start_time, ':') + 1) AS INTEGER), 2047)) " +
+                "* 8 + CAST(strftime('%w', date) AS INTEGER)) " +
+                "* 2 + (combo_id IS NOT NULL AND combo_id != id) " +
+                "FROM reservations_history ";
+        String sql = aggregatedThrough == null
+                ? packed + "WHERE +date <= ?"
+                : packed + "WHERE date <= ? AND date > ?";
+
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, yesterday.toString());
+            if (aggregatedThrough != null) {
+                ps.setString(2, aggregatedThrough.toString());
+            }
+
+            loadTables(conn);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    accumulate(rs.getLong(1));
+                }
+            }
+
+            if (firstDate == null) {
+                firstDate = findFirstDate(conn);
+            }
+            aggregatedThrough = yesterday;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static synchronized void invalidate() {
+        stale = false;
+        occupiedByZone.clear();
+        firstDate = null;
+        aggregatedThrough = null;
+        seatedCount = 0;
+        seatedMinutes = 0;
+        seatedMinutesInOpenHours = 0;
+        seatedGuestMinutes = 0;
+        seatedCapacityMinutes = 0;
+        completedCount = 0;
+        completedMinutes = 0;
+        noShowCount = 0;
+        cancelledCount = 0;
+    }
+
+    private static void onReservationsChanged(String date) {
+        LocalDate through = aggregatedThrough;
+        try {
+            if (date == null || through == null || !LocalDate.parse(date).isAfter(through)) {
+                stale = true;
+            }
+        } catch (Exception e) {
+            stale = true;
+        }
+    }
+
+    private static void accumulate(long packed) {
+        boolean comboPiece = (packed & 1) == 1;
+        packed >>>= 1;
+        int dayOfWeek = ((int) (packed & 7) + 6) % 7;
+        packed >>>= 3;
+        int start = (int) (packed & 2047);
+        packed >>>= 11;
+        int duration = (int) (packed & 1023);
+        packed >>>= 10;
+        int guests = (int) (packed & 127);
+        packed >>>= 7;
+        int status = (int) (packed & 3);
+        int tableId = (int) (packed >>> 2);
+
+        if (status == STATUS_NO_SHOW) {
+            noShowCount += comboPiece ? 0 : 1;
+            return;
+        }
+        if (status == STATUS_CANCELLED) {
+            cancelledCount += comboPiece ? 0 : 1;
+            return;
+        }
+        if (duration <= 0) {
+            return;
+        }
+
+        int end = start + duration;
+        int capacity = tableId < capacityByTable.length ? capacityByTable[tableId] : 0;
+
+        seatedCount += comboPiece ? 0 : 1;
+        seatedMinutes += duration;
+        seatedMinutesInOpenHours += Math.max(0, Math.min(end, CLOSE_MINUTE) - Math.max(start, OPEN_MINUTE));
+        seatedGuestMinutes += (long) guests * duration;
+        seatedCapacityMinutes += (long) Math.max(capacity, guests) * duration;
+
+        if (status == STATUS_COMPLETED && !comboPiece) {
+            completedCount++;
+            completedMinutes += duration;
+        }
+
+        long[] occupied = tableId < occupiedByTable.length ? occupiedByTable[tableId] : null;
+        if (occupied == null) {
+            return;
+        }
+
+        int base = dayOfWeek * SLOTS_PER_DAY;
+        int lastSlot = Math.min((end - 1) / SLOT_MINUTES, SLOTS_PER_DAY - 1);
+        for (int slot = start / SLOT_MINUTES; slot <= lastSlot; slot++) {
+            occupied[base + slot]++;
+        }
+    }
+
+    public static synchronized List<String> getZones() {
+        return new ArrayList<>(occupiedByZone.keySet());
+    }
+
+    public static synchronized double[][] getHeatmap(String zone) {
+        double[][] heatmap = new double[7][SLOTS_PER_DAY];
+        long[] occupied = occupiedByZone.get(zone);
+        int tables = countTablesInZone(zone);
+        if (occupied == null || tables == 0 || firstDate == null) {
+            return heatmap;
+        }
+
+        int[] days = countDaysOfWeek(firstDate, aggregatedThrough);
+        for (int dow = 0; dow < 7; dow++) {
+            if (days[dow] == 0) {
+                continue;
+            }
+            double denominator = (double) tables * days[dow];
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                heatmap[dow][slot] = Math.min(1.0, occupied[dow * SLOTS_PER_DAY + slot] / denominator);
+            }
+        }
+        return heatmap;
+    }
+
+    public static synchronized Map<String, Object> getSummary() {
+        Map<String, Object> summary = new HashMap<>();
+        long outcomes = completedCount + noShowCount;
+        int tables = countTablesInZone(null);
+        long days = firstDate == null ? 0 : ChronoUnit.DAYS.between(firstDate, aggregatedThrough) + 1;
+        double openTableMinutes = (double) tables * days * (CLOSE_MINUTE - OPEN_MINUTE);
+
+        summary.put("from", firstDate);
+        summary.put("to", aggregatedThrough);
+        summary.put("seated", seatedCount);
+        summary.put("cancelled", cancelledCount);
+        summary.put("noShows", noShowCount);
+        summary.put("averageTurnMinutes", completedCount > 0 ? (double) completedMinutes / completedCount : 0.0);
+        summary.put("noShowRate", outcomes > 0 ? (double) noShowCount / outcomes : 0.0);
+        summary.put("tableHourUtilization", openTableMinutes > 0 ? seatedMinutesInOpenHours / openTableMinutes : 0.0);
+        summary.put("seatUtilization", seatedCapacityMinutes > 0 ? (double) seatedGuestMinutes / seatedCapacityMinutes : 0.0);
+        summary.put("seatedHours", seatedMinutes / 60.0);
+        return summary;
+    }
+
+    private static int countTablesInZone(String zone) {
+        String sql = zone == null
+                ? "SELECT COUNT(*) FROM tables WHERE status != 'На ремонте'"
+                : "SELECT COUNT(*) FROM tables WHERE status != 'На ремонте' AND zone = ?";
+
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (zone != null) {
+                ps.setString(1, zone);
+            }
+            ResultSet rs = ps.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private static void loadTables(Connection conn) throws Exception {
+        List<int[]> rows = new ArrayList<>();
+        List<String> zones = new ArrayList<>();
+        int maxId = 0;
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, zone, capacity FROM tables")) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                rows.add(new int[]{id, rs.getInt("capacity")});
+                zones.add(rs.getString("zone"));
+                maxId = Math.max(maxId, id);
+            }
+        }
+
+        capacityByTable = new int[maxId + 1];
+        occupiedByTable = new long[maxId + 1][];
+        for (int i = 0; i < rows.size(); i++) {
+            int id = rows.get(i)[0];
+            capacityByTable[id] = rows.get(i)[1];
+
+            String zone = zones.get(i);
+            if (zone == null) {
+                continue;
+            }
+            long[] occupied = occupiedByZone.get(zone);
+            if (occupied == null) {
+                occupied = new long[7 * SLOTS_PER_DAY];
+                occupiedByZone.put(zone, occupied);
+            }
+            occupiedByTable[id] = occupied;
+        }
+    }
+
+    private static LocalDate findFirstDate(Connection conn) throws Exception {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(date) FROM reservations_history")) {
+            if (rs.next() && rs.getString(1) != null) {
+                return LocalDate.parse(rs.getString(1));
+            }
+        }
+        return null;
+    }
+
+    private static int[] countDaysOfWeek(LocalDate from, LocalDate to) {
+        int[] counts = new int[7];
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days <= 0) {
+            return counts;
+        }
+        int first = from.getDayOfWeek().getValue() - 1;
+        for (int dow = 0; dow < 7; dow++) {
+            counts[dow] = (int) (days / 7);
+        }
+        for (int i = 0; i < days % 7; i++) {
+            counts[(first + i) % 7]++;
+        }
+        return counts;
+    }
+}
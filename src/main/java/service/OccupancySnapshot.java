@@ -0,0 +1,168 @@
+package service;
+
+import dao.Database;
+import dao.TableStatusBuffer;
+import dao.TurnTimeModel;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OccupancySnapshot {
+
+    private final LocalDate firstDate;
+    private final int days;
+
+    private final int[] tableIds;
+    private final String[] zones;
+    private final int[] capacities;
+    private final boolean[] inService;
+    private final Map<Integer, Integer> indexById = new HashMap<>();
+
+    private final BitSet[][] occupied;
+
+    private OccupancySnapshot(LocalDate firstDate, int days, List<Object[]> tables) {
+        this.firstDate = firstDate;
+        this.days = days;
+
+        int count = tables.size();
+        tableIds = new int[count];
+        zones = new String[count];
+        capacities = new int[count];
+        inService = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            Object[] row = tables.get(i);
+            tableIds[i] = (Integer) row[0];
+            zones[i] = (String) row[1];
+            capacities[i] = (Integer) row[2];
+            inService[i] = !"На ремонте".equals(row[3]);
+            indexById.put(tableIds[i], i);
+        }
+
+        occupied = new BitSet[days][];
+    }
+
+    public static OccupancySnapshot load(LocalDate firstDate, int days, int excludeReservationId) {
+        List<Object[]> tables = new ArrayList<>();
+
+        String reservationsSql = "SELECT table_id, date, start_time, duration, guests, status FROM reservations " +
+                "WHERE date BETWEEN ? AND ? AND id != ? AND status IN ('Подтверждено', 'Активно')";
+
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection()) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                         "SELECT id, zone, capacity, status FROM tables ORDER BY capacity, zone, id")) {
+                while (rs.next()) {
+                    tables.add(new Object[]{rs.getInt("id"), rs.getString("zone"),
+                            rs.getInt("capacity"), rs.getString("status")});
+                }
+            }
+
+            OccupancySnapshot snapshot = new OccupancySnapshot(firstDate, days, tables);
+
+            try (PreparedStatement ps = conn.prepareStatement(reservationsSql)) {
+                ps.setString(1, firstDate.toString());
+                ps.setString(2, firstDate.plusDays(days - 1).toString());
+                ps.setInt(3, excludeReservationId);
+                ResultSet rs = ps.executeQuery();
+
+                while (rs.next()) {
+                    snapshot.markOccupied(rs.getInt("table_id"), rs.getString("date"), rs.getString("start_time"),
+                            rs.getInt("duration"), rs.getInt("guests"), rs.getString("status"));
+                }
+            }
+            return snapshot;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private void markOccupied(int tableId, String date, String startTime, int duration, int guests, String status) {
+        Integer table = indexById.get(tableId);
+        int start = minutesOf(startTime);
+        if (table == null || start < 0) {
+            return;
+        }
+        duration = TurnTimeModel.blockingMinutes(guests, date, startTime, zones[table], duration, status);
+        if (duration <= 0) {
+            return;
+        }
+        int day = (int) ChronoUnit.DAYS.between(firstDate, LocalDate.parse(date));
+        if (day < 0 || day >= days) {
+            return;
+        }
+        if (occupied[day] == null) {
+            occupied[day] = new BitSet[tableIds.length];
+        }
+        if (occupied[day][table] == null) {
+            occupied[day][table] = new BitSet(24 * 60);
+        }
+        occupied[day][table].set(start, start + duration);
+    }
+
+    public boolean isFree(int day, int table, int start, int duration) {
+        BitSet[] tables = occupied[day];
+        if (tables == null || tables[table] == null) {
+            return true;
+        }
+        int next = tables[table].nextSetBit(start);
+        return next < 0 || next >= start + duration;
+    }
+
+    public boolean fits(int table, int guests) {
+        return inService[table] && capacities[table] >= guests;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getTableCount() {
+        return tableIds.length;
+    }
+
+    public int indexOf(int tableId) {
+        Integer index = indexById.get(tableId);
+        return index != null ? index : -1;
+    }
+
+    public int getTableId(int table) {
+        return tableIds[table];
+    }
+
+    public String getZone(int table) {
+        return zones[table];
+    }
+
+    public int getCapacity(int table) {
+        return capacities[table];
+    }
+
+    public String describe(int table) {
+        return String.format("%d - %s (%d мест)", tableIds[table], zones[table], capacities[table]);
+    }
+
+    public static int minutesOf(String time) {
+        try {
+            String[] parts = time.split(":");
+            return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package service;
+
+import dao.ReservationDAO;
+import dao.SummaryDAO;
+import dao.TableDAO;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class QueryBenchmark {
+
+    public static Map<String, long[]> run(int iterations) {
+        LocalDate today = LocalDate.now();
+        String todayText = today.toString();
+        String tomorrow = today.plusDays(1).toString();
+        String yearAgo = today.minusDays(365).toString();
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("Столики", TableDAO::getAllTables);
+        queries.put("Бронирования на сегодня", () -> ReservationDAO.getReservationsByDate(todayText));
+        queries.put("Свободные столики", () -> ReservationDAO.getAvailableTables(tomorrow, "19:00", 120, 2));
+        queries.put("Снимок загрузки 30 дней", () -> OccupancySnapshot.load(today, 30, -1));
+        queries.put("Сводка за год", () -> SummaryDAO.getDailySummary(yearAgo, todayText));
+        queries.put("Аналитика загрузки", () -> {
+            OccupancyAnalytics.invalidate();
+            OccupancyAnalytics.refresh();
+        });
+        queries.put("Вся история", ReservationDAO::getAllReservations);
+
+        Map<String, long[]> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            long[] times = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                query.getValue().run();
+                times[i] = (System.nanoTime() - start) / 1000;
+            }
+            long first = times[0];
+            Arrays.sort(times);
+            results.put(query.getKey(), new long[]{first, times[iterations / 2], times[iterations - 1]});
+        }
+        return results;
+    }
+}
@@ -0,0 +1,167 @@
+package service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SlotSearch {
+
+    public static final int HORIZON_DAYS = Integer.getInteger("restaurant.search.horizonDays", 30);
+
+    private static final int FIRST_WINDOW_DAYS = 7;
+    private static final int DAYS_PER_TASK = 2;
+    private static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    public static Map<String, Object> findEarliest(LocalDate startDate, LocalTime earliestToday,
+                                                   String[] timeSlots, int guests, int duration) {
+        return findEarliest(startDate, earliestToday, timeSlots, guests, duration, -1, -1);
+    }
+
+    public static Map<String, Object> findEarliest(LocalDate startDate, LocalTime earliestToday, String[] timeSlots,
+                                                   int guests, int duration,
+                                                   int excludeReservationId, int preferredTableId) {
+        int[] slots = new int[timeSlots.length];
+        for (int i = 0; i < timeSlots.length; i++) {
+            slots[i] = OccupancySnapshot.minutesOf(timeSlots[i]);
+        }
+
+        int offset = 0;
+        int window = FIRST_WINDOW_DAYS;
+        while (offset < HORIZON_DAYS) {
+            int days = Math.min(window, HORIZON_DAYS - offset);
+            OccupancySnapshot snapshot = OccupancySnapshot.load(startDate.plusDays(offset), days, excludeReservationId);
+            if (snapshot == null) {
+                return null;
+            }
+
+            AtomicInteger earliest = new AtomicInteger(NOT_FOUND);
+            Query query = new Query(snapshot, slots, earliestToday, guests, duration,
+                    snapshot.indexOf(preferredTableId), earliest);
+            ForkJoinPool.commonPool().invoke(new DayRangeSearch(query, 0, days));
+
+            if (earliest.get() != NOT_FOUND) {
+                return describe(query, earliest.get() / slots.length, earliest.get() % slots.length, timeSlots);
+            }
+
+            offset += days;
+            window *= 2;
+        }
+        return null;
+    }
+
+    private static Map<String, Object> describe(Query query, int day, int slot, String[] timeSlots) {
+        OccupancySnapshot snapshot = query.snapshot;
+        int start = query.slots[slot];
+        int count = 0;
+        String firstTable = null;
+
+        for (int table = 0; table < snapshot.getTableCount(); table++) {
+            if (snapshot.fits(table, query.guests) && snapshot.isFree(day, table, start, query.duration)) {
+                if (firstTable == null) {
+                    firstTable = snapshot.describe(table);
+                }
+                count++;
+            }
+        }
+
+        String tableInfo = firstTable;
+        if (query.preferredTable >= 0 && snapshot.isFree(day, query.preferredTable, start, query.duration)) {
+            tableInfo = snapshot.describe(query.preferredTable);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("date", snapshot.getFirstDate().plusDays(day));
+        result.put("time", timeSlots[slot]);
+        result.put("tablesCount", count);
+        result.put("tableInfo", tableInfo);
+        return result;
+    }
+
+    private static class Query {
+        final OccupancySnapshot snapshot;
+        final int[] slots;
+        final LocalDate today = LocalDate.now();
+        final LocalTime earliestToday;
+        final int guests;
+        final int duration;
+        final int preferredTable;
+        final AtomicInteger earliest;
+
+        Query(OccupancySnapshot snapshot, int[] slots, LocalTime earliestToday, int guests, int duration,
+              int preferredTable, AtomicInteger earliest) {
+            this.snapshot = snapshot;
+            this.slots = slots;
+            this.earliestToday = earliestToday;
+            this.guests = guests;
+            this.duration = duration;
+            this.preferredTable = preferredTable;
+            this.earliest = earliest;
+        }
+
+        void searchDay(int day) {
+            int firstSlot = 0;
+            if (snapshot.getFirstDate().plusDays(day).equals(today)) {
+                int notBefore = earliestToday.getHour() * 60 + earliestToday.getMinute();
+                while (firstSlot < slots.length && slots[firstSlot] < notBefore) {
+                    firstSlot++;
+                }
+            }
+
+            int base = day * slots.length;
+            for (int slot = firstSlot; slot < slots.length; slot++) {
+                if (base + slot >= earliest.get()) {
+                    return;
+                }
+                if (hasTable(day, slots[slot])) {
+                    earliest.accumulateAndGet(base + slot, Math::min);
+                    return;
+                }
+            }
+        }
+
+        private boolean hasTable(int day, int start) {
+            if (preferredTable >= 0 && snapshot.isFree(day, preferredTable, start, duration)) {
+                return true;
+            }
+            for (int table = 0; table < snapshot.getTableCount(); table++) {
+                if (snapshot.fits(table, guests) && snapshot.isFree(day, table, start, duration)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class DayRangeSearch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Query query;
+        private final int fromDay;
+        private final int toDay;
+
+        DayRangeSearch(Query query, int fromDay, int toDay) {
+            this.query = query;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        protected void compute() {
+            if (fromDay * query.slots.length >= query.earliest.get()) {
+                return;
+            }
+            if (toDay - fromDay <= DAYS_PER_TASK) {
+                for (int day = fromDay; day < toDay; day++) {
+                    query.searchDay(day);
+                }
+                return;
+            }
+            int middle = (fromDay + toDay) >>> 1;
+            invokeAll(new DayRangeSearch(query, fromDay, middle), new DayRangeSearch(query, middle, toDay));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+public class SlotSuggester {
+
+    public static final int DEFAULT_LIMIT = 5;
+
+    private static final int SEARCH_DAYS = Integer.getInteger("restaurant.suggest.days", 7);
+
+    private static final double DAY_PENALTY = 120;
+    private static final double SEAT_WASTE_PENALTY = 15;
+    private static final double OTHER_ZONE_PENALTY = 45;
+
+    public static List<Map<String, Object>> suggest(LocalDate requestedDate, String requestedTime,
+                                                    LocalTime earliestToday, String[] timeSlots,
+                                                    int guests, int duration, int preferredTableId, int limit) {
+        OccupancySnapshot snapshot = OccupancySnapshot.load(requestedDate, SEARCH_DAYS, -1);
+        if (snapshot == null) {
+            return new ArrayList<>();
+        }
+
+        int[] slots = new int[timeSlots.length];
+        for (int i = 0; i < timeSlots.length; i++) {
+            slots[i] = OccupancySnapshot.minutesOf(timeSlots[i]);
+        }
+
+        LocalDate today = LocalDate.now();
+        int notBeforeToday = earliestToday.getHour() * 60 + earliestToday.getMinute();
+        int requestedMinute = OccupancySnapshot.minutesOf(requestedTime);
+        if (requestedMinute < 0) {
+            requestedMinute = requestedDate.equals(today) ? notBeforeToday : slots[0];
+        }
+
+        int preferred = snapshot.indexOf(preferredTableId);
+        String preferredZone = preferred >= 0 ? snapshot.getZone(preferred) : null;
+
+        PriorityQueue<Candidate> worstFirst = new PriorityQueue<>((a, b) -> Double.compare(b.score, a.score));
+        Set<String> zonesAtSlot = new HashSet<>();
+
+        for (int day = 0; day < snapshot.getDays(); day++) {
+            LocalDate date = requestedDate.plusDays(day);
+            if (date.isBefore(today)) {
+                continue;
+            }
+
+            for (int slot = 0; slot < slots.length; slot++) {
+                if (date.equals(today) && slots[slot] < notBeforeToday) {
+                    continue;
+                }
+
+                double timeScore = Math.abs(slots[slot] - requestedMinute) + day * DAY_PENALTY;
+                if (worstFirst.size() >= limit && timeScore >= worstFirst.peek().score) {
+                    continue;
+                }
+
+                zonesAtSlot.clear();
+                for (int table = 0; table < snapshot.getTableCount(); table++) {
+                    if (!snapshot.fits(table, guests)
+                            || zonesAtSlot.contains(String.valueOf(snapshot.getZone(table)))
+                            || !snapshot.isFree(day, table, slots[slot], duration)) {
+                        continue;
+                    }
+                    zonesAtSlot.add(String.valueOf(snapshot.getZone(table)));
+
+                    double score = timeScore + (snapshot.getCapacity(table) - guests) * SEAT_WASTE_PENALTY;
+                    if (preferredZone != null && !preferredZone.equals(snapshot.getZone(table))) {
+                        score += OTHER_ZONE_PENALTY;
+                    }
+
+                    if (worstFirst.size() < limit) {
+                        worstFirst.offer(new Candidate(day, slot, table, score));
+                    } else if (score < worstFirst.peek().score) {
+                        worstFirst.poll();
+                        worstFirst.offer(new Candidate(day, slot, table, score));
+                    }
+                }
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(worstFirst);
+        ranked.sort((a, b) -> Double.compare(a.score, b.score));
+
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (Candidate candidate : ranked) {
+            LocalDate date = requestedDate.plusDays(candidate.day);
+            String tableInfo = snapshot.describe(candidate.table);
+
+            Map<String, Object> suggestion = new HashMap<>();
+            suggestion.put("date", date);
+            suggestion.put("time", timeSlots[candidate.slot]);
+            suggestion.put("tableInfo", tableInfo);
+            suggestion.put("zone", snapshot.getZone(candidate.table));
+            suggestion.put("score", candidate.score);
+            suggestion.put("label", date.format(DateTimeFormatter.ofPattern("dd.MM")) + " " +
+                    timeSlots[candidate.slot] + " — " + tableInfo);
+            suggestions.add(suggestion);
+        }
+        return suggestions;
+    }
+
+    private static class Candidate {
+        final int day;
+        final int slot;
+        final int table;
+        final double score;
+
+        Candidate(int day, int slot, int table, double score) {
+            this.day = day;
+            this.slot = slot;
+            this.table = table;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package service;
+
+import javafx.scene.Scene;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StartupProfiler {
+
+    private static final boolean REPORT = Boolean.getBoolean("restaurant.startup.report");
+    private static final boolean EXIT_AFTER_STARTUP = Boolean.getBoolean("restaurant.startup.exit");
+
+    private static final List<String> phases = new ArrayList<>();
+    private static final List<Long> times = new ArrayList<>();
+    private static boolean finished;
+
+    public static synchronized void mark(String phase) {
+        if (!finished) {
+            phases.add(phase);
+            times.add(System.nanoTime());
+        }
+    }
+
+    public static void finishOnNextPulse(Scene scene) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            finish();
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    public static void finish() {
+        synchronized (StartupProfiler.class) {
+            if (finished) {
+                return;
+            }
+            mark("первый кадр");
+            finished = true;
+            if (REPORT || EXIT_AFTER_STARTUP) {
+                printReport();
+            }
+        }
+        if (EXIT_AFTER_STARTUP) {
+            System.exit(0);
+        }
+    }
+
+    private static void printReport() {
+        long now = System.nanoTime();
+        long jvmStart = now - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+
+        System.out.println("Запуск (мс от старта JVM):");
+        long previous = jvmStart;
+        for (int i = 0; i < phases.size(); i++) {
+            long time = times.get(i);
+            System.out.printf("  %-28s %6d  (+%d)%n", phases.get(i),
+                    (time - jvmStart) / 1_000_000, (time - previous) / 1_000_000);
+            previous = time;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package service;
+
+import dao.Database;
+import dao.TableStatusBuffer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TableAssignmentOptimizer {
+
+    private static final long TIME_BUDGET_MS = Long.getLong("restaurant.optimizer.budgetMs", 80);
+    private static final int TURN_MINUTES = Integer.getInteger("restaurant.optimizer.turnMinutes", 120);
+    private static final int LOCKED_BEFORE_START_MINUTES = 30;
+
+    private static final int OPEN_MINUTE = 10 * 60;
+    private static final int CLOSE_MINUTE = 23 * 60;
+
+    private final int[] tableIds;
+    private final String[] zones;
+    private final int[] capacities;
+    private final boolean[] inService;
+    private final BitSet[] occupied;
+
+    private final int[] reservationIds;
+    private final String[] startTimes;
+    private final int[] starts;
+    private final int[] durations;
+    private final int[] guests;
+    private final boolean[] movable;
+    private final int[] original;
+    private final int[] assigned;
+
+    private final int fillFrom;
+
+    private TableAssignmentOptimizer(List<Object[]> tables, List<Object[]> reservations, int fillFrom, int lockedBefore) {
+        this.fillFrom = fillFrom;
+
+        int tableCount = tables.size();
+        tableIds = new int[tableCount];
+        zones = new String[tableCount];
+        capacities = new int[tableCount];
+        inService = new boolean[tableCount];
+        occupied = new BitSet[tableCount];
+        Map<Integer, Integer> indexById = new HashMap<>();
+        for (int t = 0; t < tableCount; t++) {
+            Object[] row = tables.get(t);
+            tableIds[t] = (Integer) row[0];
+            zones[t] = (String) row[1];
+            capacities[t] = (Integer) row[2];
+            inService[t] = !"На ремонте".equals(row[3]);
+            occupied[t] = new BitSet(24 * 60);
+            indexById.put(tableIds[t], t);
+        }
+
+        int count = reservations.size();
+        reservationIds = new int[count];
+        startTimes = new String[count];
+        starts = new int[count];
+        durations = new int[count];
+        guests = new int[count];
+        movable = new boolean[count];
+        original = new int[count];
+        assigned = new int[count];
+        for (int b = 0; b < count; b++) {
+            Object[] row = reservations.get(b);
+            reservationIds[b] = (Integer) row[0];
+            Integer table = indexById.get((Integer) row[1]);
+            startTimes[b] = (String) row[2];
+            starts[b] = Math.max(0, OccupancySnapshot.minutesOf(startTimes[b]));
+            durations[b] = Math.max(1, (Integer) row[3]);
+            guests[b] = (Integer) row[4];
+            original[b] = table != null ? table : -1;
+            assigned[b] = original[b];
+            movable[b] = table != null && "Подтверждено".equals(row[5]) && starts[b] >= lockedBefore
+                    && row[6] == null;
+
+            if (table != null) {
+                occupied[table].set(starts[b], starts[b] + durations[b]);
+            }
+        }
+    }
+
+    public static Map<String, Object> optimize(String date) {
+        long started = System.currentTimeMillis();
+        List<Object[]> tables = new ArrayList<>();
+        List<Object[]> reservations = new ArrayList<>();
+
+        String sql = "SELECT id, table_id, start_time, duration, guests, status, combo_id FROM reservations " +
+                "WHERE date = ? AND status IN ('Подтверждено', 'Активно')";
+
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection()) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                         "SELECT id, zone, capacity, status FROM tables ORDER BY capacity, zone, id")) {
+                while (rs.next()) {
+                    tables.add(new Object[]{rs.getInt("id"), rs.getString("zone"),
+                            rs.getInt("capacity"), rs.getString("status")});
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, date);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    reservations.add(new Object[]{rs.getInt("id"), rs.getInt("table_id"), rs.getString("start_time"),
+                            rs.getInt("duration"), rs.getInt("guests"), rs.getString("status"),
+                            rs.getObject("combo_id")});
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        int fillFrom = OPEN_MINUTE;
+        int lockedBefore = 0;
+        if (LocalDate.now().toString().equals(date)) {
+            LocalTime now = LocalTime.now();
+            fillFrom = Math.max(OPEN_MINUTE, now.getHour() * 60 + now.getMinute());
+            lockedBefore = now.getHour() * 60 + now.getMinute() + LOCKED_BEFORE_START_MINUTES;
+        }
+
+        TableAssignmentOptimizer optimizer = new TableAssignmentOptimizer(tables, reservations, fillFrom, lockedBefore);
+        Map<String, Object> plan = optimizer.run(started + TIME_BUDGET_MS);
+        plan.put("date", date);
+        plan.put("millis", System.currentTimeMillis() - started);
+        return plan;
+    }
+
+    private Map<String, Object> run(long deadline) {
+        int coversBefore = potentialCovers();
+        long wasteBefore = waste();
+
+        int[] current = assigned.clone();
+        long currentScore = score();
+        if (!buildBestFitDecreasing() || score() <= currentScore) {
+            restore(current);
+        }
+
+        improve(deadline);
+
+        List<Map<String, Object>> moves = new ArrayList<>();
+        for (int b = 0; b < assigned.length; b++) {
+            if (assigned[b] != original[b]) {
+                Map<String, Object> move = new HashMap<>();
+                move.put("reservationId", reservationIds[b]);
+                move.put("time", startTimes[b]);
+                move.put("guests", guests[b]);
+                move.put("fromTableId", tableIds[original[b]]);
+                move.put("toTableId", tableIds[assigned[b]]);
+                move.put("toTable", String.format("%d - %s (%d мест)",
+                        tableIds[assigned[b]], zones[assigned[b]], capacities[assigned[b]]));
+                moves.add(move);
+            }
+        }
+
+        Map<String, Object> plan = new HashMap<>();
+        plan.put("moves", moves);
+        plan.put("coversBefore", coversBefore);
+        plan.put("coversAfter", potentialCovers());
+        plan.put("coversGained", potentialCovers() - coversBefore);
+        plan.put("wasteBefore", wasteBefore);
+        plan.put("wasteAfter", waste());
+        return plan;
+    }
+
+    private boolean buildBestFitDecreasing() {
+        List<Integer> order = new ArrayList<>();
+        for (int b = 0; b < assigned.length; b++) {
+            if (movable[b]) {
+                occupied[assigned[b]].clear(starts[b], starts[b] + durations[b]);
+                assigned[b] = -1;
+                order.add(b);
+            }
+        }
+        order.sort((a, b) -> guests[a] != guests[b] ? guests[b] - guests[a] : durations[b] - durations[a]);
+
+        for (int b : order) {
+            int best = -1;
+            for (int t = 0; t < capacities.length; t++) {
+                if (!fits(b, t) || !isFree(t, starts[b], durations[b])) {
+                    continue;
+                }
+                if (best < 0 || capacities[t] < capacities[best]
+                        || (capacities[t] == capacities[best] && t == original[b])) {
+                    best = t;
+                }
+            }
+            if (best < 0) {
+                return false;
+            }
+            assign(b, best);
+        }
+        return true;
+    }
+
+    private void improve(long deadline) {
+        boolean improved = true;
+        while (improved && System.currentTimeMillis() < deadline) {
+            improved = false;
+
+            for (int b = 0; b < assigned.length; b++) {
+                if (movable[b] && relocate(b)) {
+                    improved = true;
+                }
+            }
+
+            for (int a = 0; a < assigned.length && System.currentTimeMillis() < deadline; a++) {
+                if (!movable[a]) {
+                    continue;
+                }
+                for (int b = a + 1; b < assigned.length; b++) {
+                    if (movable[b] && assigned[a] != assigned[b] && swap(a, b)) {
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean relocate(int b) {
+        int from = assigned[b];
+        int end = starts[b] + durations[b];
+        long before = tableScore(from) - wasteOf(b, from) + moveCost(b, from);
+
+        occupied[from].clear(starts[b], end);
+        long fromWithout = tableScore(from);
+
+        int bestTable = from;
+        long bestDelta = 0;
+        for (int t = 0; t < capacities.length; t++) {
+            if (t == from || !fits(b, t) || !isFree(t, starts[b], durations[b])) {
+                continue;
+            }
+            long targetBefore = tableScore(t);
+            occupied[t].set(starts[b], end);
+            long targetAfter = tableScore(t);
+            occupied[t].clear(starts[b], end);
+
+            long delta = fromWithout + targetAfter - wasteOf(b, t) + moveCost(b, t) - (before + targetBefore);
+            if (delta > bestDelta) {
+                bestDelta = delta;
+                bestTable = t;
+            }
+        }
+
+        assign(b, bestTable);
+        return bestTable != from;
+    }
+
+    private boolean swap(int a, int b) {
+        int ta = assigned[a];
+        int tb = assigned[b];
+        if (!fits(a, tb) || !fits(b, ta) || capacities[ta] == capacities[tb]) {
+            return false;
+        }
+
+        long before = tableScore(ta) + tableScore(tb) - wasteOf(a, ta) - wasteOf(b, tb)
+                + moveCost(a, ta) + moveCost(b, tb);
+
+        occupied[ta].clear(starts[a], starts[a] + durations[a]);
+        occupied[tb].clear(starts[b], starts[b] + durations[b]);
+        if (isFree(tb, starts[a], durations[a]) && isFree(ta, starts[b], durations[b])) {
+            occupied[tb].set(starts[a], starts[a] + durations[a]);
+            occupied[ta].set(starts[b], starts[b] + durations[b]);
+            long after = tableScore(ta) + tableScore(tb) - wasteOf(a, tb) - wasteOf(b, ta)
+                    + moveCost(a, tb) + moveCost(b, ta);
+            if (after > before) {
+                assigned[a] = tb;
+                assigned[b] = ta;
+                return true;
+            }
+            occupied[tb].clear(starts[a], starts[a] + durations[a]);
+            occupied[ta].clear(starts[b], starts[b] + durations[b]);
+        }
+        occupied[ta].set(starts[a], starts[a] + durations[a]);
+        occupied[tb].set(starts[b], starts[b] + durations[b]);
+        return false;
+    }
+
+    private void assign(int b, int table) {
+        assigned[b] = table;
+        occupied[table].set(starts[b], starts[b] + durations[b]);
+    }
+
+    private void restore(int[] assignment) {
+        for (BitSet bits : occupied) {
+            bits.clear();
+        }
+        for (int b = 0; b < assigned.length; b++) {
+            assigned[b] = assignment[b];
+            if (assigned[b] >= 0) {
+                occupied[assigned[b]].set(starts[b], starts[b] + durations[b]);
+            }
+        }
+    }
+
+    private boolean fits(int b, int table) {
+        return inService[table] && capacities[table] >= guests[b];
+    }
+
+    private boolean isFree(int table, int start, int duration) {
+        int next = occupied[table].nextSetBit(start);
+        return next < 0 || next >= start + duration;
+    }
+
+    private long score() {
+        long score = 0;
+        for (int t = 0; t < capacities.length; t++) {
+            score += tableScore(t);
+        }
+        for (int b = 0; b < assigned.length; b++) {
+            if (assigned[b] >= 0) {
+                score += moveCost(b, assigned[b]) - wasteOf(b, assigned[b]);
+            }
+        }
+        return score;
+    }
+
+    private long tableScore(int table) {
+        return inService[table] ? (long) capacities[table] * freeTurns(table) * 10_000_000_000L : 0;
+    }
+
+    private long wasteOf(int b, int table) {
+        return (long) (capacities[table] - guests[b]) * durations[b] * 100;
+    }
+
+    private long moveCost(int b, int table) {
+        return table == original[b] ? 0 : -1;
+    }
+
+    private int freeTurns(int table) {
+        int turns = 0;
+        int from = fillFrom;
+        while (from < CLOSE_MINUTE) {
+            int busy = occupied[table].nextSetBit(from);
+            int gapEnd = busy < 0 ? CLOSE_MINUTE : Math.min(busy, CLOSE_MINUTE);
+            turns += (gapEnd - from) / TURN_MINUTES;
+            if (busy < 0) {
+                break;
+            }
+            from = occupied[table].nextClearBit(busy);
+        }
+        return turns;
+    }
+
+    private int potentialCovers() {
+        int covers = 0;
+        for (int t = 0; t < capacities.length; t++) {
+            if (inService[t]) {
+                covers += capacities[t] * freeTurns(t);
+            }
+        }
+        return covers;
+    }
+
+    private long waste() {
+        long waste = 0;
+        for (int b = 0; b < assigned.length; b++) {
+            if (assigned[b] >= 0) {
+                waste += (long) (capacities[assigned[b]] - guests[b]) * durations[b];
+            }
+        }
+        return waste;
+    }
+}
@@ -0,0 +1,254 @@
+package service;
+
+import dao.Database;
+import dao.TableDAO;
+import dao.TableStatusBuffer;
+import dao.TurnTimeModel;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TableCombinations {
+
+    public static final String PREFIX = "Объединение ";
+
+    private static final int MAX_TABLES = Integer.getInteger("restaurant.combo.maxTables", 4);
+    private static final int MAX_TABLES_PER_ZONE = 64;
+
+    private static Map<String, List<Combination>> combinationsByZone;
+
+    static {
+        TurnTimeModel.addModelListener(TableCombinations::invalidate);
+    }
+
+    public static synchronized void invalidate() {
+        combinationsByZone = null;
+    }
+
+    public static List<String> findAvailable(String date, String startTime, int duration, int guests, int limit) {
+        Map<String, List<Combination>> combinations = getCombinations();
+        List<Combination> found = new ArrayList<>();
+        if (combinations.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        OccupancySnapshot snapshot = OccupancySnapshot.load(LocalDate.parse(date), 1, -1);
+        if (snapshot == null) {
+            return new ArrayList<>();
+        }
+        int start = OccupancySnapshot.minutesOf(startTime);
+
+        for (List<Combination> zoneCombinations : combinations.values()) {
+            long freeMask = 0;
+            int[] tableIds = zoneCombinations.get(0).zoneTableIds;
+            for (int i = 0; i < tableIds.length; i++) {
+                int table = snapshot.indexOf(tableIds[i]);
+                if (table >= 0 && snapshot.fits(table, 1) && snapshot.isFree(0, table, start, duration)) {
+                    freeMask |= 1L << i;
+                }
+            }
+
+            int inZone = 0;
+            for (Combination combination : zoneCombinations) {
+                if (inZone >= limit) {
+                    break;
+                }
+                if (combination.capacity >= guests && (combination.mask & ~freeMask) == 0) {
+                    found.add(combination);
+                    inZone++;
+                }
+            }
+        }
+
+        found.sort((a, b) -> a.capacity != b.capacity
+                ? a.capacity - b.capacity : a.tableIds.length - b.tableIds.length);
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < found.size() && i < limit; i++) {
+            result.add(found.get(i).describe());
+        }
+        return result;
+    }
+
+    public static boolean isCombination(String displayString) {
+        return displayString != null && displayString.startsWith(PREFIX);
+    }
+
+    public static List<Integer> parseTableIds(String displayString) {
+        List<Integer> ids = new ArrayList<>();
+        if (!isCombination(displayString)) {
+            return ids;
+        }
+
+        String body = displayString.substring(PREFIX.length());
+        int dash = body.indexOf(" - ");
+        if (dash > 0) {
+            body = body.substring(0, dash);
+        }
+        for (String part : body.split("\\+")) {
+            try {
+                ids.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException e) {
+                return new ArrayList<>();
+            }
+        }
+        return ids;
+    }
+
+    private static synchronized Map<String, List<Combination>> getCombinations() {
+        if (combinationsByZone == null) {
+            combinationsByZone = precompute();
+        }
+        return combinationsByZone;
+    }
+
+    private static Map<String, List<Combination>> precompute() {
+        Map<String, List<int[]>> tablesByZone = new LinkedHashMap<>();
+        Map<String, Integer> skippedByZone = new LinkedHashMap<>();
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, zone, capacity FROM tables " +
+                     "WHERE status != 'На ремонте' AND zone IS NOT NULL ORDER BY zone, id")) {
+            while (rs.next()) {
+                List<int[]> zoneTables = tablesByZone.computeIfAbsent(rs.getString("zone"), z -> new ArrayList<>());
+                if (zoneTables.size() < MAX_TABLES_PER_ZONE) {
+                    zoneTables.add(new int[]{rs.getInt("id"), rs.getInt("capacity")});
+                } else {
+                    skippedByZone.merge(rs.getString("zone"), 1, Integer::sum);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        for (Map.Entry<String, Integer> skipped : skippedByZone.entrySet()) {
+            System.err.println("Зона " + skipped.getKey() + ": столиков для объединения больше " + MAX_TABLES_PER_ZONE +
+                    ", пропущено: " + skipped.getValue());
+        }
+
+        Map<Integer, String> zoneById = new HashMap<>();
+        Map<Integer, Integer> indexById = new HashMap<>();
+        for (Map.Entry<String, List<int[]>> entry : tablesByZone.entrySet()) {
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                zoneById.put(entry.getValue().get(i)[0], entry.getKey());
+                indexById.put(entry.getValue().get(i)[0], i);
+            }
+        }
+
+        Map<String, long[]> neighboursByZone = new HashMap<>();
+        for (Map.Entry<String, List<int[]>> entry : tablesByZone.entrySet()) {
+            neighboursByZone.put(entry.getKey(), new long[entry.getValue().size()]);
+        }
+        for (int[] pair : TableDAO.getAdjacency()) {
+            String zone = zoneById.get(pair[0]);
+            if (zone == null || !zone.equals(zoneById.get(pair[1]))) {
+                continue;
+            }
+            long[] neighbours = neighboursByZone.get(zone);
+            int a = indexById.get(pair[0]);
+            int b = indexById.get(pair[1]);
+            neighbours[a] |= 1L << b;
+            neighbours[b] |= 1L << a;
+        }
+
+        Map<String, List<Combination>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, List<int[]>> entry : tablesByZone.entrySet()) {
+            List<Combination> combinations = enumerate(entry.getKey(), entry.getValue(),
+                    neighboursByZone.get(entry.getKey()));
+            if (!combinations.isEmpty()) {
+                result.put(entry.getKey(), combinations);
+            }
+        }
+        return result;
+    }
+
+    private static List<Combination> enumerate(String zone, List<int[]> tables, long[] neighbours) {
+        int[] zoneTableIds = new int[tables.size()];
+        for (int i = 0; i < tables.size(); i++) {
+            zoneTableIds[i] = tables.get(i)[0];
+        }
+
+        Set<Long> seen = new HashSet<>();
+        Deque<Long> queue = new ArrayDeque<>();
+        for (int i = 0; i < tables.size(); i++) {
+            queue.add(1L << i);
+        }
+
+        List<Combination> combinations = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            long mask = queue.poll();
+            int size = Long.bitCount(mask);
+            if (size >= 2) {
+                combinations.add(new Combination(zone, mask, tables, zoneTableIds));
+            }
+            if (size >= MAX_TABLES) {
+                continue;
+            }
+
+            long frontier = 0;
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                frontier |= neighbours[Long.numberOfTrailingZeros(rest)];
+            }
+            frontier &= ~mask;
+
+            for (long rest = frontier; rest != 0; rest &= rest - 1) {
+                long next = mask | Long.lowestOneBit(rest);
+                if (seen.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+
+        combinations.sort((a, b) -> a.capacity != b.capacity
+                ? a.capacity - b.capacity : a.tableIds.length - b.tableIds.length);
+        return combinations;
+    }
+
+    private static class Combination {
+        final String zone;
+        final long mask;
+        final int capacity;
+        final int[] tableIds;
+        final int[] zoneTableIds;
+
+        Combination(String zone, long mask, List<int[]> tables, int[] zoneTableIds) {
+            this.zone = zone;
+            this.mask = mask;
+            this.zoneTableIds = zoneTableIds;
+
+            tableIds = new int[Long.bitCount(mask)];
+            int capacity = 0;
+            int n = 0;
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                int[] table = tables.get(Long.numberOfTrailingZeros(rest));
+                tableIds[n++] = table[0];
+                capacity += table[1];
+            }
+            this.capacity = capacity;
+            Arrays.sort(tableIds);
+        }
+
+        String describe() {
+            StringBuilder ids = new StringBuilder();
+            for (int id : tableIds) {
+                if (ids.length() > 0) {
+                    ids.append('+');
+                }
+                ids.append(id);
+            }
+            return String.format("%s%s - %s (%d мест)", PREFIX, ids, zone, capacity);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package service;
+
+import dao.Database;
+import dao.ReservationDAO;
+import dao.TableDAO;
+import dao.TableStatusBuffer;
+import model.WaitingParty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+public class Waitlist {
+
+    public static final int MAX_PARTY_SIZE = 63;
+
+    private static final ArrayDeque<WaitingParty>[] bySize = newBuckets();
+    private static long nonEmptySizes;
+    private static int nextId = 1;
+    private static int size;
+
+    private static final Set<Integer> offeredTables = new HashSet<>();
+    private static volatile BiConsumer<WaitingParty, Integer> matchListener;
+
+    static {
+        TableDAO.addTableReleaseListener(Waitlist::onTableReleased);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArrayDeque<WaitingParty>[] newBuckets() {
+        ArrayDeque<WaitingParty>[] buckets = new ArrayDeque[MAX_PARTY_SIZE + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        return buckets;
+    }
+
+    public static void setMatchListener(BiConsumer<WaitingParty, Integer> listener) {
+        matchListener = listener;
+    }
+
+    public static synchronized WaitingParty add(String clientName, int guests, int duration, int patienceMinutes) {
+        int bucket = Math.max(1, Math.min(guests, MAX_PARTY_SIZE));
+        WaitingParty party = new WaitingParty(nextId++, clientName, guests, duration,
+                LocalDateTime.now(), patienceMinutes);
+        bySize[bucket].addLast(party);
+        nonEmptySizes |= 1L << bucket;
+        size++;
+        return party;
+    }
+
+    public static synchronized boolean remove(int partyId) {
+        for (int bucket = 1; bucket <= MAX_PARTY_SIZE; bucket++) {
+            if ((nonEmptySizes & (1L << bucket)) == 0) {
+                continue;
+            }
+            if (bySize[bucket].removeIf(party -> party.getId() == partyId)) {
+                size--;
+                if (bySize[bucket].isEmpty()) {
+                    nonEmptySizes &= ~(1L << bucket);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static synchronized List<WaitingParty> getWaiting() {
+        dropExpired();
+        List<WaitingParty> waiting = new ArrayList<>();
+        for (ArrayDeque<WaitingParty> bucket : bySize) {
+            waiting.addAll(bucket);
+        }
+        waiting.sort((a, b) -> a.getArrivedAt().compareTo(b.getArrivedAt()));
+        return waiting;
+    }
+
+    public static synchronized int size() {
+        return size;
+    }
+
+    public static void offerDeclined(WaitingParty party, int tableId) {
+        synchronized (Waitlist.class) {
+            offeredTables.remove(tableId);
+            int bucket = Math.max(1, Math.min(party.getGuests(), MAX_PARTY_SIZE));
+            bySize[bucket].addFirst(party);
+            nonEmptySizes |= 1L << bucket;
+            size++;
+        }
+    }
+
+    public static synchronized void offerAccepted(int tableId) {
+        offeredTables.remove(tableId);
+    }
+
+    public static void onTableReleased(int tableId) {
+        BiConsumer<WaitingParty, Integer> listener = matchListener;
+        WaitingParty match;
+        synchronized (Waitlist.class) {
+            if (listener == null || size == 0 || offeredTables.contains(tableId)) {
+                return;
+            }
+            match = takeFor(tableId);
+            if (match == null) {
+                return;
+            }
+            offeredTables.add(tableId);
+        }
+
+        listener.accept(match, tableId);
+    }
+
+    private static WaitingParty takeFor(int tableId) {
+        int capacity = getSeatableCapacity(tableId);
+        if (capacity <= 0) {
+            return null;
+        }
+
+        String today = LocalDate.now().toString();
+        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm"));
+        LocalDateTime clock = LocalDateTime.now();
+
+        long candidates = nonEmptySizes & ((2L << Math.min(capacity, MAX_PARTY_SIZE)) - 1);
+        while (candidates != 0) {
+            int bucket = 63 - Long.numberOfLeadingZeros(candidates);
+            candidates &= ~(1L << bucket);
+
+            ArrayDeque<WaitingParty> queue = bySize[bucket];
+            while (!queue.isEmpty() && queue.peekFirst().isExpired(clock)) {
+                queue.pollFirst();
+                size--;
+            }
+            if (queue.isEmpty()) {
+                nonEmptySizes &= ~(1L << bucket);
+                continue;
+            }
+
+            WaitingParty party = queue.peekFirst();
+            if (ReservationDAO.isTableAvailableForEdit(tableId, today, now, party.getDuration(), -1)) {
+                queue.pollFirst();
+                size--;
+                if (queue.isEmpty()) {
+                    nonEmptySizes &= ~(1L << bucket);
+                }
+                return party;
+            }
+        }
+        return null;
+    }
+
+    private static void dropExpired() {
+        LocalDateTime clock = LocalDateTime.now();
+        for (int bucket = 1; bucket <= MAX_PARTY_SIZE; bucket++) {
+            ArrayDeque<WaitingParty> queue = bySize[bucket];
+            while (!queue.isEmpty() && queue.peekFirst().isExpired(clock)) {
+                queue.pollFirst();
+                size--;
+            }
+            if (queue.isEmpty()) {
+                nonEmptySizes &= ~(1L << bucket);
+            }
+        }
+    }
+
+    private static int getSeatableCapacity(int tableId) {
+        String sql = "SELECT capacity FROM tables WHERE id = ? AND status != 'На ремонте'";
+
+        TableStatusBuffer.flush();
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, tableId);
+            ResultSet rs = ps.executeQuery();
+            return rs.next() ? rs.getInt("capacity") : 0;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+}
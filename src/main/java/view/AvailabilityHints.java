@@ -0,0 +1,85 @@
+package view;
+
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DateCell;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.Tooltip;
+import service.CapacityForecast;
+import service.MonthAvailability;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+public class AvailabilityHints {
+
+    public static void installSlotBadges(ComboBox<String> timeCombo, DatePicker datePicker,
+                                         ComboBox<Integer> durationCombo, ComboBox<Integer> guestsCombo) {
+        timeCombo.setOnShowing(event -> {
+            Map<String, Integer> remainingBySlot = new HashMap<>();
+            if (datePicker.getValue() != null) {
+                String[] slots = timeCombo.getItems().toArray(new String[0]);
+                int[] counts = CapacityForecast.remainingBySlot(datePicker.getValue(), slots,
+                        guestsCombo.getValue() != null ? guestsCombo.getValue() : 2,
+                        durationCombo.getValue() != null ? durationCombo.getValue() : 120);
+                for (int i = 0; i < slots.length; i++) {
+                    remainingBySlot.put(slots[i], counts[i]);
+                }
+            }
+
+            timeCombo.setCellFactory(list -> new ListCell<String>() {
+                @Override
+                protected void updateItem(String item, boolean empty) {
+                    super.updateItem(item, empty);
+                    Integer count = empty || item == null ? null : remainingBySlot.get(item);
+                    if (count == null || count < 0) {
+                        setText(empty ? null : item);
+                        setStyle("");
+                    } else if (count == 0) {
+                        setText(item + "  — нет столиков");
+                        setStyle("-fx-text-fill: #e74c3c;");
+                    } else {
+                        setText(item + "  — свободно: " + count);
+                        setStyle(count <= 2 ? "-fx-text-fill: #e67e22;" : "-fx-text-fill: #27ae60;");
+                    }
+                }
+            });
+        });
+    }
+
+    public static void installAvailabilityCells(DatePicker datePicker, ComboBox<Integer> durationCombo,
+                                                ComboBox<Integer> guestsCombo, String[] timeSlots) {
+        Runnable resetCells = () -> datePicker.setDayCellFactory(picker -> new DateCell() {
+            @Override
+            public void updateItem(LocalDate date, boolean empty) {
+                super.updateItem(date, empty);
+                setDisable(empty || date.isBefore(LocalDate.now()));
+                setStyle("");
+                setTooltip(null);
+                if (empty || date.isBefore(LocalDate.now())) {
+                    return;
+                }
+
+                int freeSlots = MonthAvailability.getFreeSlots(date, timeSlots,
+                        guestsCombo.getValue() != null ? guestsCombo.getValue() : 2,
+                        durationCombo.getValue() != null ? durationCombo.getValue() : 120);
+                if (freeSlots < 0) {
+                    return;
+                }
+                if (freeSlots == 0) {
+                    setStyle("-fx-background-color: #fadbd8;");
+                } else if (freeSlots < timeSlots.length / 3) {
+                    setStyle("-fx-background-color: #fdebd0;");
+                } else {
+                    setStyle("-fx-background-color: #d5f5e3;");
+                }
+                setTooltip(new Tooltip("Свободных слотов: " + freeSlots + " из " + timeSlots.length));
+            }
+        });
+
+        resetCells.run();
+        durationCombo.valueProperty().addListener((obs, oldVal, newVal) -> resetCells.run());
+        guestsCombo.valueProperty().addListener((obs, oldVal, newVal) -> resetCells.run());
+    }
+}
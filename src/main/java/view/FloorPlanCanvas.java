@@ -0,0 +1,461 @@
+package view;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import model.TableEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FloorPlanCanvas extends Region {
+
+    public interface MoveListener {
+        void tablesMoved(Map<Integer, double[]> positions);
+    }
+
+    private static final double TABLE_WIDTH = 80;
+    private static final double TABLE_HEIGHT = 56;
+    private static final double CELL_WIDTH = 96;
+    private static final double CELL_HEIGHT = 72;
+    private static final int COLUMNS = 10;
+    private static final double ZONE_HEADER = 28;
+    private static final double INDEX_CELL = 128;
+    private static final double SELECTION_MARGIN = 4;
+
+    private static final Color BACKGROUND = Color.web("#fbfcfc");
+    private static final Color SELECTION = Color.web("#2c3e50");
+    private static final Color ZONE_TEXT = Color.web("#7f8c8d");
+
+    private static final boolean REPORT = Boolean.getBoolean("restaurant.floorplan.report");
+    private static final long REPORT_WINDOW_NANOS = 1_000_000_000L;
+    private static final long REPORT_GAP_NANOS = 100_000_000L;
+
+    private final Canvas canvas = new Canvas();
+
+    private int count;
+    private int[] ids = new int[0];
+    private int[] capacities = new int[0];
+    private String[] zones = new String[0];
+    private String[] statuses = new String[0];
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private boolean[] placed = new boolean[0];
+    private final Map<Integer, Integer> indexById = new HashMap<>();
+    private final Map<Long, List<Integer>> spatialIndex = new HashMap<>();
+    private final List<Object[]> zoneHeaders = new ArrayList<>();
+
+    private double offsetX;
+    private double offsetY;
+    private double scale = 1;
+
+    private final List<double[]> dirtyRegions = new ArrayList<>();
+    private boolean fullRedraw = true;
+    private boolean redrawScheduled;
+
+    private long reportStart;
+    private long reportLast;
+    private int reportFrames;
+    private long reportNanos;
+    private long reportMaxNanos;
+
+    private final IntegerProperty selectedTableId = new SimpleIntegerProperty(-1);
+    private boolean editable;
+    private MoveListener moveListener;
+
+    private int dragged = -1;
+    private double dragStartX;
+    private double dragStartY;
+    private double dragOriginX;
+    private double dragOriginY;
+
+    private final AnimationTimer redrawTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    public FloorPlanCanvas() {
+        getChildren().add(canvas);
+        setMinSize(0, 0);
+        setStyle("-fx-border-color: #dcdde1;");
+
+        selectedTableId.addListener((obs, oldVal, newVal) -> {
+            markTableDirty(indexById.getOrDefault(oldVal.intValue(), -1));
+            markTableDirty(indexById.getOrDefault(newVal.intValue(), -1));
+        });
+
+        canvas.setOnMousePressed(event -> {
+            dragStartX = event.getX();
+            dragStartY = event.getY();
+            int table = tableAt(toPlanX(event.getX()), toPlanY(event.getY()));
+            selectedTableId.set(table >= 0 ? ids[table] : -1);
+            dragged = table;
+            dragOriginX = table >= 0 ? xs[table] : offsetX;
+            dragOriginY = table >= 0 ? ys[table] : offsetY;
+        });
+
+        canvas.setOnMouseDragged(event -> {
+            if (event.getButton() != MouseButton.PRIMARY) {
+                return;
+            }
+            double dx = (event.getX() - dragStartX) / scale;
+            double dy = (event.getY() - dragStartY) / scale;
+            if (dragged >= 0 && editable) {
+                markTableDirty(dragged);
+                unindex(dragged);
+                xs[dragged] = dragOriginX + dx;
+                ys[dragged] = dragOriginY + dy;
+                index(dragged);
+                markTableDirty(dragged);
+            } else if (dragged < 0) {
+                offsetX = dragOriginX - dx;
+                offsetY = dragOriginY - dy;
+                markAllDirty();
+            }
+        });
+
+        canvas.setOnMouseReleased(event -> {
+            if (dragged >= 0 && editable && moveListener != null
+                    && (xs[dragged] != dragOriginX || ys[dragged] != dragOriginY)) {
+                Map<Integer, double[]> positions = new LinkedHashMap<>();
+                for (int i = 0; i < count; i++) {
+                    if (i == dragged || !placed[i]) {
+                        positions.put(ids[i], new double[]{xs[i], ys[i]});
+                        placed[i] = true;
+                    }
+                }
+                moveListener.tablesMoved(positions);
+            }
+            dragged = -1;
+        });
+
+        canvas.setOnScroll(event -> {
+            double factor = event.getDeltaY() > 0 ? 1.1 : 1 / 1.1;
+            double newScale = Math.max(0.25, Math.min(4, scale * factor));
+            double planX = toPlanX(event.getX());
+            double planY = toPlanY(event.getY());
+            scale = newScale;
+            offsetX = planX - event.getX() / scale;
+            offsetY = planY - event.getY() / scale;
+            markAllDirty();
+        });
+    }
+
+    public IntegerProperty selectedTableIdProperty() {
+        return selectedTableId;
+    }
+
+    public int getSelectedTableId() {
+        return selectedTableId.get();
+    }
+
+    public void setEditable(boolean editable) {
+        this.editable = editable;
+    }
+
+    public void setOnTablesMoved(MoveListener listener) {
+        this.moveListener = listener;
+    }
+
+    public void setTables(List<TableEntity> tables) {
+        if (sameLayout(tables)) {
+            for (TableEntity table : tables) {
+                setStatus(table.getId(), table.getStatus());
+            }
+            return;
+        }
+
+        count = tables.size();
+        ids = new int[count];
+        capacities = new int[count];
+        zones = new String[count];
+        statuses = new String[count];
+        xs = new double[count];
+        ys = new double[count];
+        placed = new boolean[count];
+        indexById.clear();
+        zoneHeaders.clear();
+
+        Map<String, List<Integer>> unplacedByZone = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            TableEntity table = tables.get(i);
+            ids[i] = table.getId();
+            capacities[i] = table.getCapacity();
+            zones[i] = String.valueOf(table.getZone());
+            statuses[i] = table.getStatus();
+            indexById.put(ids[i], i);
+            if (table.hasPosition()) {
+                xs[i] = table.getPosX();
+                ys[i] = table.getPosY();
+                placed[i] = true;
+            } else {
+                unplacedByZone.computeIfAbsent(zones[i], z -> new ArrayList<>()).add(i);
+            }
+        }
+
+        double top = 0;
+        for (int i = 0; i < count; i++) {
+            if (tables.get(i).hasPosition()) {
+                top = Math.max(top, ys[i] + CELL_HEIGHT);
+            }
+        }
+        for (Map.Entry<String, List<Integer>> zone : unplacedByZone.entrySet()) {
+            zoneHeaders.add(new Object[]{zone.getKey(), 8.0, top});
+            top += ZONE_HEADER;
+            List<Integer> zoneTables = zone.getValue();
+            for (int n = 0; n < zoneTables.size(); n++) {
+                xs[zoneTables.get(n)] = 8 + (n % COLUMNS) * CELL_WIDTH;
+                ys[zoneTables.get(n)] = top + (n / COLUMNS) * CELL_HEIGHT;
+            }
+            top += ((zoneTables.size() + COLUMNS - 1) / COLUMNS) * CELL_HEIGHT;
+        }
+
+        spatialIndex.clear();
+        for (int i = 0; i < count; i++) {
+            index(i);
+        }
+        markAllDirty();
+    }
+
+    public void setStatus(int tableId, String status) {
+        Integer table = indexById.get(tableId);
+        if (table == null || String.valueOf(status).equals(statuses[table])) {
+            return;
+        }
+        statuses[table] = status;
+        markTableDirty(table);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = Math.floor(getWidth());
+        double height = Math.floor(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            markAllDirty();
+        }
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 400;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 300;
+    }
+
+    private boolean sameLayout(List<TableEntity> tables) {
+        if (tables.size() != count) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            TableEntity table = tables.get(i);
+            if (table.getId() != ids[i] || table.getCapacity() != capacities[i]
+                    || !String.valueOf(table.getZone()).equals(zones[i])
+                    || (table.hasPosition() && (table.getPosX() != xs[i] || table.getPosY() != ys[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void markTableDirty(int table) {
+        if (table < 0 || table >= count) {
+            return;
+        }
+        dirtyRegions.add(new double[]{xs[table] - SELECTION_MARGIN, ys[table] - SELECTION_MARGIN,
+                TABLE_WIDTH + 2 * SELECTION_MARGIN, TABLE_HEIGHT + 2 * SELECTION_MARGIN});
+        scheduleRedraw();
+    }
+
+    private void markAllDirty() {
+        fullRedraw = true;
+        scheduleRedraw();
+    }
+
+    private void scheduleRedraw() {
+        if (!redrawScheduled) {
+            redrawScheduled = true;
+            redrawTimer.start();
+        }
+    }
+
+    private void flush() {
+        redrawTimer.stop();
+        redrawScheduled = false;
+
+        long start = System.nanoTime();
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        if (fullRedraw) {
+            fullRedraw = false;
+            dirtyRegions.clear();
+            redraw(gc, offsetX, offsetY, canvas.getWidth() / scale, canvas.getHeight() / scale);
+        } else {
+            for (double[] region : dirtyRegions) {
+                redraw(gc, region[0], region[1], region[2], region[3]);
+            }
+            dirtyRegions.clear();
+        }
+
+        if (REPORT) {
+            report(start, System.nanoTime());
+        }
+    }
+
+    private void report(long start, long end) {
+        if (reportFrames == 0 || start - reportLast > REPORT_GAP_NANOS) {
+            reportStart = start;
+            reportFrames = 0;
+            reportNanos = 0;
+            reportMaxNanos = 0;
+        }
+        reportLast = start;
+        reportFrames++;
+        reportNanos += end - start;
+        reportMaxNanos = Math.max(reportMaxNanos, end - start);
+
+        if (start - reportStart >= REPORT_WINDOW_NANOS) {
+            System.out.printf("План зала: %d столов, %.1f кадров/с, отрисовка в среднем %.2f мс, макс %.2f мс%n",
+                    count, (reportFrames - 1) * 1e9 / (start - reportStart),
+                    reportNanos / 1e6 / reportFrames, reportMaxNanos / 1e6);
+            reportFrames = 0;
+        }
+    }
+
+    private void redraw(GraphicsContext gc, double x, double y, double width, double height) {
+        double sx = Math.floor((x - offsetX) * scale);
+        double sy = Math.floor((y - offsetY) * scale);
+        double sw = Math.ceil(width * scale) + 1;
+        double sh = Math.ceil(height * scale) + 1;
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(sx, sy, sw, sh);
+        gc.clip();
+        gc.setFill(BACKGROUND);
+        gc.fillRect(sx, sy, sw, sh);
+
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.TOP);
+        gc.setFont(Font.font(null, FontWeight.BOLD, 13 * scale));
+        gc.setFill(ZONE_TEXT);
+        for (Object[] header : zoneHeaders) {
+            double hx = (Double) header[1];
+            double hy = (Double) header[2];
+            if (hy < y + height && hy + ZONE_HEADER > y) {
+                gc.fillText((String) header[0], (hx - offsetX) * scale, (hy - offsetY + 6) * scale);
+            }
+        }
+
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        for (int table : tablesIn(x, y, width, height)) {
+            drawTable(gc, table);
+        }
+        gc.restore();
+    }
+
+    private void drawTable(GraphicsContext gc, int table) {
+        double x = (xs[table] - offsetX) * scale;
+        double y = (ys[table] - offsetY) * scale;
+        double width = TABLE_WIDTH * scale;
+        double height = TABLE_HEIGHT * scale;
+
+        gc.setFill(colorOf(statuses[table]));
+        gc.fillRoundRect(x, y, width, height, 12 * scale, 12 * scale);
+
+        if (ids[table] == selectedTableId.get()) {
+            gc.setStroke(SELECTION);
+            gc.setLineWidth(3);
+            gc.strokeRoundRect(x - 1.5, y - 1.5, width + 3, height + 3, 14 * scale, 14 * scale);
+        }
+
+        gc.setFill(Color.WHITE);
+        gc.setFont(Font.font(null, FontWeight.BOLD, 14 * scale));
+        gc.fillText("#" + ids[table], x + width / 2, y + height * 0.38);
+        gc.setFont(Font.font(11 * scale));
+        gc.fillText(capacities[table] + " мест", x + width / 2, y + height * 0.72);
+    }
+
+    private static Color colorOf(String status) {
+        if ("Свободен".equals(status)) {
+            return Color.web("#27ae60");
+        } else if ("Занят".equals(status)) {
+            return Color.web("#e74c3c");
+        } else if ("Забронирован".equals(status)) {
+            return Color.web("#f39c12");
+        }
+        return Color.web("#95a5a6");
+    }
+
+    private List<Integer> tablesIn(double x, double y, double width, double height) {
+        List<Integer> found = new ArrayList<>();
+        int fromCol = (int) Math.floor((x - TABLE_WIDTH) / INDEX_CELL);
+        int toCol = (int) Math.floor((x + width) / INDEX_CELL);
+        int fromRow = (int) Math.floor((y - TABLE_HEIGHT) / INDEX_CELL);
+        int toRow = (int) Math.floor((y + height) / INDEX_CELL);
+
+        for (int col = fromCol; col <= toCol; col++) {
+            for (int row = fromRow; row <= toRow; row++) {
+                List<Integer> cell = spatialIndex.get(cellKey(col, row));
+                if (cell == null) {
+                    continue;
+                }
+                for (int table : cell) {
+                    if (xs[table] < x + width && xs[table] + TABLE_WIDTH > x
+                            && ys[table] < y + height && ys[table] + TABLE_HEIGHT > y) {
+                        found.add(table);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private int tableAt(double x, double y) {
+        List<Integer> hits = tablesIn(x, y, 0.5, 0.5);
+        return hits.isEmpty() ? -1 : hits.get(hits.size() - 1);
+    }
+
+    private void index(int table) {
+        spatialIndex.computeIfAbsent(cellKey((int) Math.floor(xs[table] / INDEX_CELL),
+                (int) Math.floor(ys[table] / INDEX_CELL)), k -> new ArrayList<>()).add(table);
+    }
+
+    private void unindex(int table) {
+        List<Integer> cell = spatialIndex.get(cellKey((int) Math.floor(xs[table] / INDEX_CELL),
+                (int) Math.floor(ys[table] / INDEX_CELL)));
+        if (cell != null) {
+            cell.remove(Integer.valueOf(table));
+        }
+    }
+
+    private static long cellKey(int col, int row) {
+        return ((long) col << 32) ^ (row & 0xffffffffL);
+    }
+
+    private double toPlanX(double screenX) {
+        return offsetX + screenX / scale;
+    }
+
+    private double toPlanY(double screenY) {
+        return offsetY + screenY / scale;
+    }
+}
@@ -0,0 +1,30 @@
+package view;
+
+import javafx.scene.control.ComboBox;
+import javafx.util.StringConverter;
+
+public class GuestsComboBox extends ComboBox<Integer> {
+
+    private static final int MAX_GUESTS = 500;
+
+    public GuestsComboBox() {
+        getItems().addAll(1, 2, 3, 4, 5, 6, 8, 10, 12, 14, 16, 20, 24, 30, 40, 50, 60, 80, 100);
+        setEditable(true);
+        setConverter(new StringConverter<Integer>() {
+            @Override
+            public String toString(Integer guests) {
+                return guests == null ? "" : guests.toString();
+            }
+
+            @Override
+            public Integer fromString(String text) {
+                try {
+                    int guests = Integer.parseInt(text.trim());
+                    return guests > 0 && guests <= MAX_GUESTS ? guests : null;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package view;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+public class ListPatcher {
+
+    public static <T, K> int patch(TableView<T> table, List<T> fresh,
+                                   Function<T, K> key, BiPredicate<T, T> update) {
+        if (table.getSortOrder().isEmpty()) {
+            return patch(table.getItems(), fresh, key, update);
+        }
+
+        ObservableList<T> target = table.getItems();
+        int changes = removeAndUpdate(target, fresh, key, update);
+
+        Set<K> existingKeys = keysOf(target, key);
+        List<T> added = new ArrayList<>();
+        for (T item : fresh) {
+            if (!existingKeys.contains(key.apply(item))) {
+                added.add(item);
+            }
+        }
+        if (!added.isEmpty()) {
+            target.addAll(added);
+            changes += added.size();
+        }
+
+        if (changes > 0) {
+            table.sort();
+        }
+        return changes;
+    }
+
+    public static <T, K> int patch(ObservableList<T> target, List<T> fresh,
+                                   Function<T, K> key, BiPredicate<T, T> update) {
+        int changes = removeAndUpdate(target, fresh, key, update);
+
+        Set<K> existingKeys = keysOf(target, key);
+        int inserted = 0;
+        int misplaced = 0;
+        int position = 0;
+        for (T item : fresh) {
+            K wanted = key.apply(item);
+            if (!existingKeys.contains(wanted)) {
+                inserted++;
+            } else if (!Objects.equals(key.apply(target.get(position++)), wanted)) {
+                misplaced++;
+            }
+        }
+        if (inserted == 0 && misplaced == 0) {
+            return changes;
+        }
+
+        if (inserted + misplaced > fresh.size() / 2) {
+            Map<K, T> existingByKey = new HashMap<>();
+            for (T existing : target) {
+                existingByKey.put(key.apply(existing), existing);
+            }
+            List<T> ordered = new ArrayList<>(fresh.size());
+            for (T item : fresh) {
+                T existing = existingByKey.get(key.apply(item));
+                ordered.add(existing != null ? existing : item);
+            }
+            target.setAll(ordered);
+            return changes + inserted + misplaced;
+        }
+
+        for (int i = 0; i < fresh.size(); i++) {
+            K wanted = key.apply(fresh.get(i));
+            if (i < target.size() && Objects.equals(key.apply(target.get(i)), wanted)) {
+                continue;
+            }
+            int found = -1;
+            for (int j = i + 1; j < target.size(); j++) {
+                if (Objects.equals(key.apply(target.get(j)), wanted)) {
+                    found = j;
+                    break;
+                }
+            }
+            target.add(i, found >= 0 ? target.remove(found) : fresh.get(i));
+            changes++;
+        }
+        return changes;
+    }
+
+    private static <T, K> int removeAndUpdate(ObservableList<T> target, List<T> fresh,
+                                              Function<T, K> key, BiPredicate<T, T> update) {
+        Map<K, T> freshByKey = new HashMap<>();
+        for (T item : fresh) {
+            freshByKey.put(key.apply(item), item);
+        }
+
+        Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        int changes = 0;
+        for (T existing : target) {
+            T replacement = freshByKey.get(key.apply(existing));
+            if (replacement == null) {
+                removed.add(existing);
+            } else if (update.test(existing, replacement)) {
+                changes++;
+            }
+        }
+        if (!removed.isEmpty()) {
+            target.removeAll(removed);
+            changes += removed.size();
+        }
+        return changes;
+    }
+
+    private static <T, K> Set<K> keysOf(List<T> items, Function<T, K> key) {
+        Set<K> keys = new HashSet<>();
+        for (T item : items) {
+            keys.add(key.apply(item));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,489 @@
+package view;
+
+import dao.TurnTimeModel;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import model.Reservation;
+import model.TableEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TimelineCanvas extends Region {
+
+    public interface RescheduleListener {
+        boolean reschedule(Reservation reservation, int tableId, int startMinute);
+    }
+
+    private static final double ROW_HEIGHT = 28;
+    private static final double HEADER_HEIGHT = 24;
+    private static final double LABEL_WIDTH = 140;
+    private static final int DAY_MINUTES = 24 * 60;
+    private static final int SNAP_MINUTES = 15;
+    private static final int INITIAL_MINUTE = 10 * 60;
+
+    private static final Color GRID = Color.web("#ecf0f1");
+    private static final Color HOUR_LINE = Color.web("#d0d3d4");
+    private static final Color HEADER = Color.web("#f8f9fa");
+    private static final Color TEXT = Color.web("#2c3e50");
+
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar horizontal = new ScrollBar();
+    private final ScrollBar vertical = new ScrollBar();
+
+    private int[] rowTableIds = new int[0];
+    private int[] rowCapacities = new int[0];
+    private boolean[] rowInService = new boolean[0];
+    private String[] rowLabels = new String[0];
+    private String[] rowZones = new String[0];
+    private final Map<Integer, Integer> rowByTableId = new HashMap<>();
+
+    private Reservation[] bookings = new Reservation[0];
+    private int[] bookingStarts = new int[0];
+    private int[] bookingEnds = new int[0];
+    private int[] bookingBlockEnds = new int[0];
+    private int[] bookingCombos = new int[0];
+    private int[][] bookingsByRow = new int[0][];
+    private int[] longestByRow = new int[0];
+    private int[] longestBlockByRow = new int[0];
+
+    private double pixelsPerMinute = 2;
+    private boolean redrawScheduled;
+
+    private int dragged = -1;
+    private double dragStartX;
+    private int dragRow;
+    private int dragStart;
+    private boolean dragValid;
+    private List<Integer> dragSiblings = new ArrayList<>();
+
+    private RescheduleListener rescheduleListener;
+
+    private final AnimationTimer redrawTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            redrawTimer.stop();
+            redrawScheduled = false;
+            redraw();
+        }
+    };
+
+    public TimelineCanvas() {
+        vertical.setOrientation(Orientation.VERTICAL);
+        horizontal.setMin(0);
+        horizontal.setValue(INITIAL_MINUTE);
+        vertical.setMin(0);
+        getChildren().addAll(canvas, horizontal, vertical);
+        setMinSize(0, 0);
+
+        horizontal.valueProperty().addListener((obs, oldVal, newVal) -> scheduleRedraw());
+        vertical.valueProperty().addListener((obs, oldVal, newVal) -> scheduleRedraw());
+
+        canvas.setOnScroll(event -> {
+            if (event.isControlDown()) {
+                pixelsPerMinute = Math.max(0.5, Math.min(8, pixelsPerMinute * (event.getDeltaY() > 0 ? 1.2 : 1 / 1.2)));
+                updateScrollBars();
+            } else if (event.isShiftDown() || event.getDeltaX() != 0) {
+                double delta = event.getDeltaX() != 0 ? event.getDeltaX() : event.getDeltaY();
+                setScroll(horizontal, horizontal.getValue() - delta / pixelsPerMinute);
+            } else {
+                setScroll(vertical, vertical.getValue() - event.getDeltaY());
+            }
+            scheduleRedraw();
+        });
+
+        canvas.setOnMousePressed(event -> {
+            dragged = bookingAt(event.getX(), event.getY());
+            if (dragged >= 0 && !"Подтверждено".equals(bookings[dragged].getStatus())) {
+                dragged = -1;
+            }
+            if (dragged >= 0) {
+                dragSiblings = siblingsOf(dragged);
+                dragStartX = event.getX();
+                dragRow = rowByTableId.getOrDefault(bookings[dragged].getTableId(), -1);
+                dragStart = bookingStarts[dragged];
+                dragValid = true;
+            }
+        });
+
+        canvas.setOnMouseDragged(event -> {
+            if (dragged < 0) {
+                return;
+            }
+            int shift = (int) Math.round((event.getX() - dragStartX) / pixelsPerMinute / SNAP_MINUTES) * SNAP_MINUTES;
+            int sourceRow = rowByTableId.getOrDefault(bookings[dragged].getTableId(), -1);
+            int row = rowAt(event.getY());
+            dragRow = row >= 0 && dragSiblings.isEmpty() ? row : sourceRow;
+            dragStart = Math.max(0, Math.min(DAY_MINUTES - duration(dragged), bookingStarts[dragged] + shift));
+            dragValid = canPlace(dragged, dragRow, dragStart);
+            for (int sibling : dragSiblings) {
+                dragValid &= canPlace(sibling, rowByTableId.getOrDefault(bookings[sibling].getTableId(), -1), dragStart);
+            }
+            scheduleRedraw();
+        });
+
+        canvas.setOnMouseReleased(event -> {
+            int moved = dragged;
+            dragged = -1;
+            if (moved >= 0 && dragValid && rescheduleListener != null
+                    && (dragStart != bookingStarts[moved] || rowTableIds[dragRow] != bookings[moved].getTableId())) {
+                rescheduleListener.reschedule(bookings[moved], rowTableIds[dragRow], dragStart);
+            }
+            scheduleRedraw();
+        });
+    }
+
+    public void setOnReschedule(RescheduleListener listener) {
+        this.rescheduleListener = listener;
+    }
+
+    public void setData(List<TableEntity> tables, List<Reservation> reservations, Map<Integer, Integer> comboIds) {
+        int rows = tables.size();
+        rowTableIds = new int[rows];
+        rowCapacities = new int[rows];
+        rowInService = new boolean[rows];
+        rowLabels = new String[rows];
+        rowZones = new String[rows];
+        rowByTableId.clear();
+        for (int row = 0; row < rows; row++) {
+            TableEntity table = tables.get(row);
+            rowTableIds[row] = table.getId();
+            rowCapacities[row] = table.getCapacity();
+            rowInService[row] = !"На ремонте".equals(table.getStatus());
+            rowLabels[row] = "#" + table.getId() + " " + table.getZone() + " (" + table.getCapacity() + ")";
+            rowZones[row] = table.getZone();
+            rowByTableId.put(table.getId(), row);
+        }
+
+        bookings = reservations.toArray(new Reservation[0]);
+        bookingStarts = new int[bookings.length];
+        bookingEnds = new int[bookings.length];
+        bookingBlockEnds = new int[bookings.length];
+        bookingCombos = new int[bookings.length];
+        List<List<Integer>> perRow = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            perRow.add(new ArrayList<>());
+        }
+        for (int i = 0; i < bookings.length; i++) {
+            bookingStarts[i] = minutesOf(bookings[i].getTime());
+            bookingEnds[i] = Math.min(DAY_MINUTES, bookingStarts[i] + bookings[i].getDuration());
+            bookingCombos[i] = comboIds.getOrDefault(bookings[i].getId(), -1);
+            Integer row = rowByTableId.get(bookings[i].getTableId());
+            bookingBlockEnds[i] = bookingStarts[i] + TurnTimeModel.blockingMinutes(bookings[i].getGuests(),
+                    bookings[i].getDate(), bookings[i].getTime(), row != null ? rowZones[row] : null,
+                    bookings[i].getDuration(), bookings[i].getStatus());
+            if (row != null && bookingStarts[i] >= 0) {
+                perRow.get(row).add(i);
+            }
+        }
+
+        bookingsByRow = new int[rows][];
+        longestByRow = new int[rows];
+        longestBlockByRow = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            List<Integer> rowBookings = perRow.get(row);
+            rowBookings.sort((a, b) -> bookingStarts[a] - bookingStarts[b]);
+            bookingsByRow[row] = new int[rowBookings.size()];
+            for (int n = 0; n < rowBookings.size(); n++) {
+                bookingsByRow[row][n] = rowBookings.get(n);
+                longestByRow[row] = Math.max(longestByRow[row], duration(rowBookings.get(n)));
+                longestBlockByRow[row] = Math.max(longestBlockByRow[row],
+                        bookingBlockEnds[rowBookings.get(n)] - bookingStarts[rowBookings.get(n)]);
+            }
+        }
+
+        dragged = -1;
+        dragSiblings = new ArrayList<>();
+        updateScrollBars();
+        scheduleRedraw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double barWidth = vertical.prefWidth(-1);
+        double barHeight = horizontal.prefHeight(-1);
+        double width = Math.max(0, Math.floor(getWidth() - barWidth));
+        double height = Math.max(0, Math.floor(getHeight() - barHeight));
+
+        vertical.resizeRelocate(width, 0, barWidth, height);
+        horizontal.resizeRelocate(0, height, width, barHeight);
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            updateScrollBars();
+            scheduleRedraw();
+        }
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 800;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 500;
+    }
+
+    private void updateScrollBars() {
+        double visibleMinutes = Math.max(0, canvas.getWidth() - LABEL_WIDTH) / pixelsPerMinute;
+        horizontal.setMax(Math.max(0, DAY_MINUTES - visibleMinutes));
+        horizontal.setVisibleAmount(visibleMinutes);
+        setScroll(horizontal, horizontal.getValue());
+
+        double visibleHeight = Math.max(0, canvas.getHeight() - HEADER_HEIGHT);
+        vertical.setMax(Math.max(0, rowTableIds.length * ROW_HEIGHT - visibleHeight));
+        vertical.setVisibleAmount(visibleHeight);
+        vertical.setUnitIncrement(ROW_HEIGHT);
+        setScroll(vertical, vertical.getValue());
+    }
+
+    private static void setScroll(ScrollBar bar, double value) {
+        bar.setValue(Math.max(bar.getMin(), Math.min(bar.getMax(), value)));
+    }
+
+    private void scheduleRedraw() {
+        if (!redrawScheduled) {
+            redrawScheduled = true;
+            redrawTimer.start();
+        }
+    }
+
+    private void redraw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, width, height);
+
+        double firstMinute = horizontal.getValue();
+        double lastMinute = firstMinute + (width - LABEL_WIDTH) / pixelsPerMinute;
+        int firstRow = (int) Math.floor(vertical.getValue() / ROW_HEIGHT);
+        int lastRow = Math.min(rowTableIds.length - 1,
+                (int) Math.ceil((vertical.getValue() + height - HEADER_HEIGHT) / ROW_HEIGHT));
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(LABEL_WIDTH, HEADER_HEIGHT, width - LABEL_WIDTH, height - HEADER_HEIGHT);
+        gc.clip();
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            double y = rowY(row);
+            if (!rowInService[row]) {
+                gc.setFill(GRID);
+                gc.fillRect(LABEL_WIDTH, y, width - LABEL_WIDTH, ROW_HEIGHT);
+            }
+            gc.setStroke(GRID);
+            gc.setLineWidth(1);
+            gc.strokeLine(LABEL_WIDTH, y + ROW_HEIGHT - 0.5, width, y + ROW_HEIGHT - 0.5);
+        }
+
+        gc.setStroke(HOUR_LINE);
+        for (int hour = (int) (firstMinute / 60); hour * 60 <= lastMinute; hour++) {
+            double x = minuteX(hour * 60);
+            gc.strokeLine(x + 0.5, HEADER_HEIGHT, x + 0.5, height);
+        }
+
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setFont(Font.font(11));
+        for (int row = firstRow; row <= lastRow; row++) {
+            int[] rowBookings = bookingsByRow[row];
+            int from = firstStartingAfter(rowBookings, (int) firstMinute - longestByRow[row]);
+            for (int n = from; n < rowBookings.length && bookingStarts[rowBookings[n]] <= lastMinute; n++) {
+                int booking = rowBookings[n];
+                if ((dragged >= 0 && (booking == dragged || sameCombo(booking, dragged)))
+                        || bookingEnds[booking] < firstMinute) {
+                    continue;
+                }
+                drawBooking(gc, booking, row, bookingStarts[booking], colorOf(bookings[booking].getStatus()));
+            }
+        }
+
+        if (dragged >= 0 && dragRow >= 0) {
+            Color ghost = dragValid ? Color.web("#27ae60", 0.75) : Color.web("#e74c3c", 0.75);
+            drawBooking(gc, dragged, dragRow, dragStart, ghost);
+            for (int sibling : dragSiblings) {
+                int row = rowByTableId.getOrDefault(bookings[sibling].getTableId(), -1);
+                if (row >= 0) {
+                    drawBooking(gc, sibling, row, dragStart, ghost);
+                }
+            }
+        }
+        gc.restore();
+
+        drawHeaders(gc, width, height, firstMinute, lastMinute, firstRow, lastRow);
+    }
+
+    private void drawBooking(GraphicsContext gc, int booking, int row, int start, Color color) {
+        double x = minuteX(start);
+        double y = rowY(row) + 3;
+        double w = Math.max(2, duration(booking) * pixelsPerMinute - 1);
+        double h = ROW_HEIGHT - 6;
+
+        gc.setFill(color);
+        gc.fillRoundRect(x, y, w, h, 6, 6);
+        if (w > 30) {
+            gc.setFill(Color.WHITE);
+            Reservation reservation = bookings[booking];
+            gc.fillText(formatMinutes(start) + " " + reservation.getClientName() + " · " + reservation.getGuests(),
+                    x + 4, y + h / 2, w - 8);
+        }
+    }
+
+    private void drawHeaders(GraphicsContext gc, double width, double height,
+                             double firstMinute, double lastMinute, int firstRow, int lastRow) {
+        gc.setFill(HEADER);
+        gc.fillRect(0, 0, width, HEADER_HEIGHT);
+        gc.fillRect(0, HEADER_HEIGHT, LABEL_WIDTH, height - HEADER_HEIGHT);
+
+        gc.setFill(TEXT);
+        gc.setFont(Font.font(null, FontWeight.BOLD, 11));
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.CENTER);
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(LABEL_WIDTH, 0, width - LABEL_WIDTH, HEADER_HEIGHT);
+        gc.clip();
+        for (int hour = (int) (firstMinute / 60); hour * 60 <= lastMinute; hour++) {
+            gc.fillText(String.format("%02d:00", hour), minuteX(hour * 60) + 3, HEADER_HEIGHT / 2);
+        }
+        gc.restore();
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(0, HEADER_HEIGHT, LABEL_WIDTH, height - HEADER_HEIGHT);
+        gc.clip();
+        gc.setFont(Font.font(11));
+        for (int row = firstRow; row <= lastRow; row++) {
+            gc.fillText(rowLabels[row], 6, rowY(row) + ROW_HEIGHT / 2, LABEL_WIDTH - 10);
+        }
+        gc.restore();
+    }
+
+    private static Color colorOf(String status) {
+        if ("Подтверждено".equals(status)) {
+            return Color.web("#3498db");
+        } else if ("Активно".equals(status)) {
+            return Color.web("#e67e22");
+        } else if ("Завершено".equals(status)) {
+            return Color.web("#95a5a6");
+        }
+        return Color.web("#d5d8dc");
+    }
+
+    private boolean canPlace(int booking, int row, int start) {
+        if (row < 0 || !rowInService[row]) {
+            return false;
+        }
+        if (bookingCombos[booking] < 0 && rowCapacities[row] < bookings[booking].getGuests()) {
+            return false;
+        }
+        int end = start + duration(booking);
+        int[] rowBookings = bookingsByRow[row];
+        int from = firstStartingAfter(rowBookings, start - longestBlockByRow[row]);
+        for (int n = from; n < rowBookings.length && bookingStarts[rowBookings[n]] < end; n++) {
+            int other = rowBookings[n];
+            if (other != booking && !sameCombo(other, booking) && isBlocking(other)
+                    && bookingBlockEnds[other] > start) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameCombo(int a, int b) {
+        return bookingCombos[a] >= 0 && bookingCombos[a] == bookingCombos[b];
+    }
+
+    private List<Integer> siblingsOf(int booking) {
+        List<Integer> siblings = new ArrayList<>();
+        for (int i = 0; i < bookings.length; i++) {
+            if (i != booking && sameCombo(i, booking)) {
+                siblings.add(i);
+            }
+        }
+        return siblings;
+    }
+
+    private boolean isBlocking(int booking) {
+        String status = bookings[booking].getStatus();
+        return "Подтверждено".equals(status) || "Активно".equals(status);
+    }
+
+    private int bookingAt(double x, double y) {
+        int row = rowAt(y);
+        if (row < 0 || x < LABEL_WIDTH) {
+            return -1;
+        }
+        double minute = horizontal.getValue() + (x - LABEL_WIDTH) / pixelsPerMinute;
+        int[] rowBookings = bookingsByRow[row];
+        int from = firstStartingAfter(rowBookings, (int) minute - longestByRow[row]);
+        int hit = -1;
+        for (int n = from; n < rowBookings.length && bookingStarts[rowBookings[n]] <= minute; n++) {
+            if (bookingEnds[rowBookings[n]] > minute) {
+                hit = rowBookings[n];
+            }
+        }
+        return hit;
+    }
+
+    private int rowAt(double y) {
+        if (y < HEADER_HEIGHT) {
+            return -1;
+        }
+        int row = (int) Math.floor((y - HEADER_HEIGHT + vertical.getValue()) / ROW_HEIGHT);
+        return row >= 0 && row < rowTableIds.length ? row : -1;
+    }
+
+    private int firstStartingAfter(int[] rowBookings, int minute) {
+        int low = 0;
+        int high = rowBookings.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bookingStarts[rowBookings[mid]] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int duration(int booking) {
+        return bookingEnds[booking] - bookingStarts[booking];
+    }
+
+    private double minuteX(double minute) {
+        return LABEL_WIDTH + (minute - horizontal.getValue()) * pixelsPerMinute;
+    }
+
+    private double rowY(int row) {
+        return HEADER_HEIGHT + row * ROW_HEIGHT - vertical.getValue();
+    }
+
+    private static String formatMinutes(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private static int minutesOf(String time) {
+        try {
+            String[] parts = time.split(":");
+            return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}